@@ -0,0 +1,53 @@
+package net.jacobandreas.steph.benchmark;
+
+import org.openjdk.jmh.results.format.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Runs the benchmarks, taking the usual JMH command-line options, but writing
+ * the results to jmh-result.json unless told otherwise, so that runs can be
+ * kept and diffed.
+ *
+ * @author jacob
+ */
+public class BenchmarkMain {
+
+    /**
+     * Where results go, unless -rff is given
+     */
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException {
+        CommandLineOptions cmd;
+        try {
+            cmd = new CommandLineOptions(args);
+        } catch(CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+        if(!cmd.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if(!cmd.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+
+        Runner runner = new Runner(options.build());
+        if(cmd.shouldHelp()) {
+            try {
+                cmd.showHelp();
+            } catch(java.io.IOException e) {
+                System.err.println("Couldn't show help: " + e.getMessage());
+            }
+        } else if(cmd.shouldList()) {
+            runner.list();
+        } else {
+            runner.run();
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package net.jacobandreas.steph.benchmark;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks every PairingStrategy.pair implementation on the round it was
+ * written for. Pairing doesn't change the teams, so each strategy pairs the
+ * same tournament state again and again.
+ *
+ * @author jacob
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PairingBenchmark {
+
+    private ArrayList<Team> round1Teams, round2Teams, round3Teams, round4Teams;
+
+    private Round1PairingStrategy round1;
+    private Round2PairingStrategy round2;
+    private Round3PairingStrategy round3;
+    private Round4NationalsPairingStrategy round4;
+    private ManualPairingStrategy manual;
+
+    @Setup(Level.Trial)
+    public void setUp(Tournaments tournaments) {
+        round1Teams = tournaments.teamsAfterRound(0);
+        round2Teams = tournaments.teamsAfterRound(1);
+        round3Teams = tournaments.teamsAfterRound(2);
+        round4Teams = tournaments.teamsAfterRound(3);
+
+        round1 = new Round1PairingStrategy(new SplittableRandomSource(Tournaments.SEED));
+        round2 = new Round2PairingStrategy(true);
+        round3 = new Round3PairingStrategy(true, true);
+        round4 = new Round4NationalsPairingStrategy(true);
+        // re-enter the first round's pairings by hand
+        manual = new ManualPairingStrategy(tournaments.afterRound(1).getRound(0).getMatches());
+    }
+
+    @Benchmark
+    public Round round1() {
+        return round1.pair(round1Teams);
+    }
+
+    @Benchmark
+    public Round round2() {
+        return round2.pair(round2Teams);
+    }
+
+    @Benchmark
+    public Round round3() {
+        return round3.pair(round3Teams);
+    }
+
+    @Benchmark
+    public Round round4Nationals() {
+        return round4.pair(round4Teams);
+    }
+
+    @Benchmark
+    public Round manual() throws TournamentStateException {
+        return manual.pair(round2Teams);
+    }
+
+}
@@ -0,0 +1,45 @@
+package net.jacobandreas.steph.benchmark;
+
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks final rankings after all four rounds. Coin flips always come up
+ * heads and tied groups are left as they are, so every call does the same
+ * work.
+ *
+ * @author jacob
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankingBenchmark {
+
+    private Collection<Team> teams;
+    private DefaultRankingStrategy ranker;
+
+    @Setup(Level.Trial)
+    public void setUp(Tournaments tournaments) {
+        teams = tournaments.teamsAfterRound(4);
+        ranker = new DefaultRankingStrategy(new CoinFlipStrategy() {
+            public int getFlip(String message, String heads, String tails) {
+                return HEADS;
+            }
+
+            public <T> void getDraw(String message, List<T> tied) {
+            }
+        });
+    }
+
+    @Benchmark
+    public List<Team> rank() {
+        return ranker.rank(teams);
+    }
+
+}
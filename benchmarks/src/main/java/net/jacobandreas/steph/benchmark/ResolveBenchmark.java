@@ -0,0 +1,106 @@
+package net.jacobandreas.steph.benchmark;
+
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks impermissible resolution on its own, starting from the card
+ * stacks rounds 3 and 4 would sort, in both resolution modes. Resolution
+ * rearranges the stacks it is given, so each call works on fresh copies
+ * (copying is a small part of the cost).
+ *
+ * @author jacob
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolveBenchmark {
+
+    @Param({ "WORKLIST", "MANUAL_CARDS" })
+    public String mode;
+
+    private ArrayList<Team> stack;
+    private ArrayList<Team> piStack, deltaStack;
+
+    private Round3Resolver unconstrained;
+    private Round4Resolver sideConstrained;
+
+    @Setup(Level.Trial)
+    public void setUp(Tournaments tournaments) {
+        int resolutionMode = "MANUAL_CARDS".equals(mode)
+                ? BasePairingStrategy.MANUAL_CARDS : BasePairingStrategy.WORKLIST;
+        unconstrained = new Round3Resolver();
+        unconstrained.setResolutionMode(resolutionMode);
+        sideConstrained = new Round4Resolver();
+        sideConstrained.setResolutionMode(resolutionMode);
+
+        // round 3's stack
+        stack = tournaments.teamsAfterRound(2);
+        new TiebreakChain()
+                .then(TiebreakChain.WINS)
+                .then(TiebreakChain.COMBINED_STRENGTH)
+                .then(TiebreakChain.POINT_DIFFERENTIAL)
+                .thenTeamNumber(true)
+                .sort(stack);
+
+        // and round 4's
+        piStack = new ArrayList<Team>();
+        deltaStack = new ArrayList<Team>();
+        for(Team t : tournaments.teamsAfterRound(3)) {
+            if(t.getLastSide() == Match.PI) {
+                deltaStack.add(t);
+            } else {
+                piStack.add(t);
+            }
+        }
+        sideConstrained.getRound4Tiebreaks().sort(piStack);
+        sideConstrained.getRound4Tiebreaks().sort(deltaStack);
+    }
+
+    @Benchmark
+    public List<Swap> resolveImpermissibles() {
+        return unconstrained.resolve(new ArrayList<Team>(stack));
+    }
+
+    @Benchmark
+    public List<Swap> sideConstrainedResolveImpermissibles() {
+        return sideConstrained.resolve(new ArrayList<Team>(piStack), new ArrayList<Team>(deltaStack));
+    }
+
+    /**
+     * Exposes round 3's unconstrained resolution.
+     */
+    static class Round3Resolver extends Round3PairingStrategy {
+
+        Round3Resolver() {
+            super(true, true);
+        }
+
+        List<Swap> resolve(ArrayList<Team> teams) {
+            return resolveImpermissibles(teams);
+        }
+
+    }
+
+    /**
+     * Exposes round 4's side-constrained resolution.
+     */
+    static class Round4Resolver extends Round4NationalsPairingStrategy {
+
+        Round4Resolver() {
+            super(true);
+        }
+
+        List<Swap> resolve(ArrayList<Team> pi, ArrayList<Team> delta) {
+            return sideConstrainedResolveImpermissibles(pi, delta);
+        }
+
+    }
+
+}
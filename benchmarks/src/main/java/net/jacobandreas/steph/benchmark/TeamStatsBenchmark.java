@@ -0,0 +1,84 @@
+package net.jacobandreas.steph.benchmark;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+/**
+ * Benchmarks the Team statistics getters the strategies call, each over every
+ * team in the field after all four rounds (so a call costs one lookup per
+ * team).
+ *
+ * @author jacob
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeamStatsBenchmark {
+
+    private Team[] field;
+
+    @Setup(Level.Trial)
+    public void setUp(Tournaments tournaments) {
+        field = tournaments.afterRound(4).getTeams().toArray(new Team[0]);
+    }
+
+    @Benchmark
+    public void wins(Blackhole bh) {
+        for(Team t : field) {
+            bh.consume(t.getWins());
+        }
+    }
+
+    @Benchmark
+    public void combinedStrength(Blackhole bh) {
+        for(Team t : field) {
+            bh.consume(t.getCombinedStrength());
+        }
+    }
+
+    @Benchmark
+    public void strengthOfWinAndLoss(Blackhole bh) {
+        for(Team t : field) {
+            bh.consume(t.getStrengthOfWin());
+            bh.consume(t.getStrengthOfLoss());
+        }
+    }
+
+    @Benchmark
+    public void pointDifferentialDropping(Blackhole bh) {
+        for(Team t : field) {
+            for(int drop = 0; drop <= 3; drop++) {
+                bh.consume(t.getPointDifferentialDropping(drop));
+            }
+        }
+    }
+
+    @Benchmark
+    public void pointsDropping(Blackhole bh) {
+        for(Team t : field) {
+            for(int drop = 0; drop <= 3; drop++) {
+                bh.consume(t.getPointsDropping(drop));
+            }
+        }
+    }
+
+    @Benchmark
+    public void lastSide(Blackhole bh) {
+        for(Team t : field) {
+            bh.consume(t.getLastSide());
+        }
+    }
+
+    @Benchmark
+    public void canHit(Blackhole bh) {
+        for(int i = 1; i < field.length; i++) {
+            bh.consume(field[i - 1].canHit(field[i]));
+        }
+    }
+
+}
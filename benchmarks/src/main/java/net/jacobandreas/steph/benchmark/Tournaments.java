@@ -0,0 +1,119 @@
+package net.jacobandreas.steph.benchmark;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.simulation.*;
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Seeded tournament states shared by the benchmarks: the same field after
+ * each of the nationals rounds, so that every strategy can be benchmarked
+ * on the round it was written for.
+ *
+ * In a "random" field, strengths are spread out, scores are noisy and a few
+ * teams share a program. An "adversarial" field is built to make pairing as
+ * hard as possible: teams come in programs of four with identical strengths
+ * and almost no noise, so program-mates keep finishing level and land next to
+ * each other in the card stacks, which forces long pairer's lists.
+ *
+ * @author jacob
+ */
+@State(Scope.Benchmark)
+public class Tournaments {
+
+    /**
+     * The seed every state is built from.
+     */
+    public static final long SEED = 20110207;
+
+    /**
+     * The number of teams in each program in an adversarial field.
+     */
+    public static final int ADVERSARIAL_PROGRAM_SIZE = 4;
+
+    @Param({ "24", "48", "500", "5000" })
+    public int teams;
+
+    @Param({ "random", "adversarial" })
+    public String state;
+
+    // afterRound[r] has had r rounds paired and played
+    private Tournament[] afterRound;
+
+    @Setup(Level.Trial)
+    public void setUp() throws TournamentStateException {
+        boolean adversarial = "adversarial".equals(state);
+        RandomSource random = new SplittableRandomSource(SEED);
+
+        Tournament tournament = new Tournament();
+        double[] strengths = new double[teams];
+        RandomSource strengthRandom = random.split();
+        Team[] field = new Team[teams];
+        for(int i = 0; i < teams; i++) {
+            field[i] = new Team("Team number " + i, i);
+            tournament.addTeam(field[i]);
+        }
+
+        BallotModel ballots;
+        if(adversarial) {
+            for(int i = 0; i < teams; i++) {
+                int program = i / ADVERSARIAL_PROGRAM_SIZE;
+                strengths[i] = program % 8;
+                for(int j = program * ADVERSARIAL_PROGRAM_SIZE;
+                        j < Math.min(teams, (program + 1) * ADVERSARIAL_PROGRAM_SIZE); j++) {
+                    if(j != i) {
+                        field[i].addProgram(field[j]);
+                    }
+                }
+            }
+            ballots = new LatentStrengthBallotModel(strengths, 0.1, 0.1);
+        } else {
+            for(int i = 0; i < teams; i++) {
+                strengths[i] = 4 * strengthRandom.nextGaussian();
+            }
+            // every eighth pair of teams shares a program
+            for(int i = 0; i + 1 < teams; i += 16) {
+                field[i].addProgram(field[i + 1]);
+                field[i + 1].addProgram(field[i]);
+            }
+            ballots = new LatentStrengthBallotModel(strengths, 4, 3);
+        }
+
+        PairingStrategy[] strategies = new NationalsStrategyStack(true, true)
+                .createPairingStrategies(random.split());
+        RandomSource ballotRandom = random.split();
+
+        afterRound = new Tournament[strategies.length + 1];
+        afterRound[0] = tournament.snapshot().fork();
+        for(int r = 0; r < strategies.length; r++) {
+            tournament.addRound(strategies[r]);
+            tournament.getCurrentRound().setPairingLocked(true);
+            ballots.addBallots(tournament.getCurrentRound(), ballotRandom);
+            tournament.getCurrentRound().play();
+            afterRound[r + 1] = tournament.snapshot().fork();
+        }
+    }
+
+    /**
+     * Gets the tournament after the given number of rounds.
+     * @param rounds the number of rounds played, from 0 to 4
+     * @return the tournament
+     */
+    public Tournament afterRound(int rounds) {
+        return afterRound[rounds];
+    }
+
+    /**
+     * Gets the teams after the given number of rounds, as a strategy would be
+     * given them.
+     * @param rounds the number of rounds played, from 0 to 4
+     * @return a new list of the teams
+     */
+    public ArrayList<Team> teamsAfterRound(int rounds) {
+        return new ArrayList<Team>(afterRound[rounds].getTeams());
+    }
+
+}
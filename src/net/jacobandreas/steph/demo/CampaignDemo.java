@@ -0,0 +1,76 @@
+package net.jacobandreas.steph.demo;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.simulation.*;
+import java.io.*;
+
+/**
+ * Provides a main method showing how to simulate the nationals pairing scheme
+ * until its fairness is known to a given precision, checkpointing as it goes.
+ * @author jacob
+ */
+public class CampaignDemo {
+
+    /**
+     * The precision wanted for the probability that the strongest team
+     * finishes first
+     */
+    public static final double STRONGEST_FIRST_PRECISION = 0.005;
+    /**
+     * The precision wanted for the rank correlation
+     */
+    public static final double RANK_CORRELATION_PRECISION = 0.001;
+    /**
+     * The precision wanted for the unpairable rate
+     */
+    public static final double UNPAIRABLE_PRECISION = 0.0005;
+
+    /**
+     * Simulates the nationals strategies (with the same teams as
+     * SimulationDemo) until every target is met, and prints the results. If a
+     * file is given on the command line, progress is checkpointed there, and
+     * running again with the same file carries on from where it stopped.
+     */
+    public static void main(String[] args) {
+
+        SimulationEngine engine = new SimulationEngine(
+                new NationalsStrategyStack(StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT));
+        engine.setNumTeams(StephDemo.NUM_TEAMS);
+        engine.setSeed(0);
+
+        double[] strengths = new double[StephDemo.NUM_TEAMS];
+        for(int i = 0; i < strengths.length; i++) {
+            strengths[i] = i - (strengths.length - 1) / 2.0;
+        }
+        engine.setBallotModel(new LatentStrengthBallotModel(strengths,
+                SimulationDemo.MATCH_NOISE, SimulationDemo.JUDGE_NOISE));
+
+        SimulationCampaign<FairnessAccumulator> campaign = new SimulationCampaign<FairnessAccumulator>(
+                engine, new FairnessAccumulator(StephDemo.NUM_TEAMS, 1), strengths);
+        campaign.addTarget(FairnessAccumulator.topKAccuracy(1), STRONGEST_FIRST_PRECISION);
+        campaign.addTarget(FairnessAccumulator.RANK_CORRELATION, RANK_CORRELATION_PRECISION);
+        campaign.addTarget(FairnessAccumulator.UNPAIRABLE_RATE, UNPAIRABLE_PRECISION);
+        if(args.length > 0) {
+            campaign.setCheckpointFile(new File(args[0]));
+        }
+
+        try {
+
+            SimulationReport report = campaign.run();
+
+            System.out.print(campaign);
+            System.out.println(report);
+
+        } catch(TournamentStateException e) {
+            System.err.println("A simulated tournament reached an illegal state.\n" +
+                    "Details:\n");
+            e.printStackTrace();
+        } catch(IOException e) {
+            System.err.println("Couldn't use the checkpoint file.\n" +
+                    "Details:\n");
+            e.printStackTrace();
+        }
+
+    }
+
+}
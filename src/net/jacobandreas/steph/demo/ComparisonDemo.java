@@ -0,0 +1,58 @@
+package net.jacobandreas.steph.demo;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.simulation.*;
+import net.jacobandreas.steph.strategy.*;
+
+/**
+ * Provides a main method comparing the nationals pairing scheme with two
+ * alternatives, using common random numbers.
+ * @author jacob
+ */
+public class ComparisonDemo {
+
+    /**
+     * The number of trials to play, unless given on the command line
+     */
+    public static final long TRIALS = 20000;
+
+    /**
+     * Compares nationals pairing with (a) lower team numbers winning ties and
+     * (b) round 4 paired like round 2 (ignoring CS), and prints the report.
+     */
+    public static void main(String[] args) {
+
+        long trials = args.length > 0 ? Long.parseLong(args[0]) : TRIALS;
+
+        StackComparison comparison = new StackComparison(
+                FairnessMetrics.RANK_CORRELATION,
+                FairnessMetrics.STRONGEST_FINISHES_FIRST,
+                FairnessMetrics.MEAN_RANK_ERROR);
+        comparison.setNumTeams(StephDemo.NUM_TEAMS);
+        comparison.setSeed(0);
+
+        comparison.addStack("nationals",
+                new NationalsStrategyStack(StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT));
+        comparison.addStack("lower first",
+                new NationalsStrategyStack(!StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT));
+        comparison.addStack("round 4 without CS", new NationalsStrategyStack(StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT) {
+            @Override
+            public PairingStrategy[] createPairingStrategies(RandomSource random) {
+                PairingStrategy[] strategies = super.createPairingStrategies(random);
+                strategies[3] = new Round2PairingStrategy(StephDemo.HIGHER_FIRST);
+                return strategies;
+            }
+        });
+
+        try {
+            System.out.println(comparison.run(trials));
+        } catch(TournamentStateException e) {
+            System.err.println("A simulated tournament reached an illegal state.\n" +
+                    "Details:\n");
+            e.printStackTrace();
+        }
+
+    }
+
+}
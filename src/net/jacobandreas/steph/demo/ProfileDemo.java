@@ -0,0 +1,55 @@
+package net.jacobandreas.steph.demo;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.simulation.*;
+
+/**
+ * Provides a main method showing where pairing time goes, round by round,
+ * across a large simulation of the nationals pairing scheme.
+ * @author jacob
+ */
+public class ProfileDemo {
+
+    /**
+     * The number of tournaments to simulate, unless given on the command line
+     */
+    public static final long TRIALS = 100000;
+
+    /**
+     * Simulates many tournaments with the nationals strategies and prints
+     * each round's pairing metrics, along with the throughput.
+     */
+    public static void main(String[] args) {
+
+        long trials = args.length > 0 ? Long.parseLong(args[0]) : TRIALS;
+
+        SimulationEngine engine = new SimulationEngine(
+                new NationalsStrategyStack(StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT));
+        engine.setNumTeams(StephDemo.NUM_TEAMS);
+        engine.setSeed(0);
+
+        double[] strengths = new double[StephDemo.NUM_TEAMS];
+        for(int i = 0; i < strengths.length; i++) {
+            strengths[i] = i - (strengths.length - 1) / 2.0;
+        }
+        engine.setBallotModel(new LatentStrengthBallotModel(strengths,
+                SimulationDemo.MATCH_NOISE, SimulationDemo.JUDGE_NOISE));
+
+        PairingProfile profile = new PairingProfile();
+
+        try {
+
+            SimulationReport report = engine.run(trials, profile, strengths);
+
+            System.out.print(profile);
+            System.out.println(report);
+
+        } catch(TournamentStateException e) {
+            System.err.println("A simulated tournament reached an illegal state.\n" +
+                    "Details:\n");
+            e.printStackTrace();
+        }
+
+    }
+
+}
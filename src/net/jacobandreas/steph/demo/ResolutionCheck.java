@@ -0,0 +1,287 @@
+package net.jacobandreas.steph.demo;
+
+import net.jacobandreas.steph.event.*;
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.simulation.*;
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Provides a main method checking that the WORKLIST resolution mode resolves
+ * impermissibles exactly as MANUAL_CARDS (the tab-card procedure) does.
+ * Random stacks, both side-constrained and unconstrained, are resolved in
+ * each mode, and the final stacks, pairer's lists, metrics and events must
+ * all match (except for the number of rows checked, which is the point of
+ * the worklist).
+ * @author jacob
+ */
+public class ResolutionCheck {
+
+    /**
+     * The number of random cases to check, unless given on the command line
+     */
+    public static final int CASES = 5000;
+
+    /**
+     * The largest field to check
+     */
+    public static final int MAX_TEAMS = 3000;
+
+    /**
+     * Resolves random stacks in both modes and prints a summary, or the first
+     * case on which they differ (exiting with status 1). Optional arguments:
+     * the number of cases, then the seed.
+     */
+    public static void main(String[] args) {
+
+        int cases = args.length > 0 ? Integer.parseInt(args[0]) : CASES;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        int sideConstrained = 0, unpairable = 0, swaps = 0;
+        long manualRows = 0, worklistRows = 0;
+
+        for(int c = 0; c < cases; c++) {
+            RandomSource random = new SplittableRandomSource(SimulationEngine.trialSeed(seed, c));
+            boolean sides = random.nextBoolean();
+            ArrayList<Team> teams = createField(random, sides);
+
+            Outcome manual = resolve(teams, sides, BasePairingStrategy.MANUAL_CARDS);
+            Outcome worklist = resolve(teams, sides, BasePairingStrategy.WORKLIST);
+            if(!manual.equals(worklist)) {
+                System.out.println("Case " + c + " (seed " + seed + ", " + teams.size() + " teams, "
+                        + (sides ? "side-constrained" : "unconstrained") + ") differs:");
+                System.out.println("MANUAL_CARDS:\n" + manual);
+                System.out.println("WORKLIST:\n" + worklist);
+                System.exit(1);
+            }
+
+            if(sides) {
+                sideConstrained++;
+            }
+            if(manual.metrics.isUnpairable()) {
+                unpairable++;
+            }
+            swaps += manual.metrics.getSwaps();
+            manualRows += manual.metrics.getRowsChecked();
+            worklistRows += worklist.metrics.getRowsChecked();
+        }
+
+        System.out.println(cases + " cases (" + sideConstrained + " side-constrained, "
+                + unpairable + " unpairable, " + swaps + " swaps): both modes agree");
+        System.out.println(String.format("rows checked: %d with MANUAL_CARDS, %d with WORKLIST (%.1fx fewer)",
+                manualRows, worklistRows, (double) manualRows / Math.max(1, worklistRows)));
+
+    }
+
+    /**
+     * Creates a random field in a random order, with enough programs and
+     * earlier rounds to leave plenty of impermissibles. Most fields are
+     * small; some are packed so tightly that they can't be paired.
+     * @param random the source of randomness
+     * @param sides true if the field will be split into pi and delta stacks
+     * @return the teams, in the order they will be stacked
+     */
+    private static ArrayList<Team> createField(RandomSource random, boolean sides) {
+        int n;
+        switch(random.nextInt(4)) {
+            case 0: n = 4 + random.nextInt(8); break;
+            case 1: n = 12 + random.nextInt(52); break;
+            case 2: n = 64 + random.nextInt(256); break;
+            default: n = 320 + random.nextInt(MAX_TEAMS - 320); break;
+        }
+        // an even number of teams; the rows (and so the stacks) may be odd
+        n -= n % 2;
+
+        Tournament tournament = new Tournament();
+        Team[] field = new Team[n];
+        for(int i = 0; i < n; i++) {
+            field[i] = new Team("Team " + i, i);
+            tournament.addTeam(field[i]);
+        }
+
+        // programs of neighbouring teams, so the conflicts cluster along the
+        // stack; the largest make some small fields unpairable
+        int maxProgram = 2 + random.nextInt(n < 12 ? n - 1 : 5);
+        for(int start = 0; start < n; ) {
+            int size = 1 + random.nextInt(maxProgram);
+            int end = Math.min(n, start + size);
+            for(int i = start; i < end; i++) {
+                for(int j = start; j < end; j++) {
+                    if(i != j) {
+                        field[i].addProgram(field[j]);
+                    }
+                }
+            }
+            start = end;
+        }
+
+        // a few rounds between random opponents, for records to rank swaps by
+        // and for more teams that have already met
+        int rounds = random.nextInt(4);
+        BallotModel ballots = new UniformBallotModel();
+        for(int r = 0; r < rounds; r++) {
+            ArrayList<Team> order = shuffled(Arrays.asList(field), random);
+            Round round = new Round();
+            for(int i = 0; i < n; i += 2) {
+                round.addMatch(new Match(order.get(i), order.get(i + 1)));
+            }
+            ballots.addBallots(round, random);
+            round.play();
+        }
+
+        if(sides || random.nextBoolean()) {
+            return shuffled(Arrays.asList(field), random);
+        }
+        // or stacked roughly as a strategy would, by record
+        ArrayList<Team> stack = new ArrayList<Team>(Arrays.asList(field));
+        new TiebreakChain().then(TiebreakChain.WINS).then(TiebreakChain.POINT_DIFFERENTIAL).sort(stack);
+        return stack;
+    }
+
+    private static ArrayList<Team> shuffled(List<Team> teams, RandomSource random) {
+        ArrayList<Team> list = new ArrayList<Team>(teams);
+        for(int i = list.size() - 1; i > 0; i--) {
+            Collections.swap(list, i, random.nextInt(i + 1));
+        }
+        return list;
+    }
+
+    /**
+     * Resolves a copy of the stack in the given mode.
+     * @param teams the teams, in stack order (for side-constrained rounds,
+     * the first half go pi and the second half delta)
+     * @param sides true for a side-constrained round
+     * @param mode BasePairingStrategy.MANUAL_CARDS or WORKLIST
+     * @return everything the resolution produced
+     */
+    private static Outcome resolve(ArrayList<Team> teams, boolean sides, int mode) {
+        Outcome outcome = new Outcome();
+        Resolver resolver = new Resolver(sides, mode, outcome.events);
+        if(sides) {
+            int half = teams.size() / 2;
+            ArrayList<Team> pi = new ArrayList<Team>(teams.subList(0, half));
+            ArrayList<Team> delta = new ArrayList<Team>(teams.subList(half, teams.size()));
+            outcome.pairersList = resolver.resolveSides(pi, delta, outcome.metrics);
+            outcome.stack = numbers(pi) + " / " + numbers(delta);
+        } else {
+            ArrayList<Team> stack = new ArrayList<Team>(teams);
+            outcome.pairersList = resolver.resolveAll(stack, outcome.metrics);
+            outcome.stack = numbers(stack);
+        }
+        return outcome;
+    }
+
+    private static String numbers(List<Team> teams) {
+        StringBuilder s = new StringBuilder();
+        for(Team t : teams) {
+            s.append(t.getNumber()).append(' ');
+        }
+        return s.toString().trim();
+    }
+
+    /**
+     * Describes a pairer's list in full, so that swaps of the same teams with
+     * different sides or reaches don't compare equal.
+     */
+    private static String describe(List<Swap> swaps) {
+        StringBuilder s = new StringBuilder();
+        for(Swap swap : swaps) {
+            s.append(swap).append(" (side ").append(swap.getSide()).append(", reach ")
+                    .append(swap.getReach()).append(", rank sum ").append(swap.getRankSum()).append(")\n");
+        }
+        return s.toString();
+    }
+
+    /**
+     * Exposes the resolution steps of the real strategies: round 2's swap
+     * ordering for side-constrained stacks and round 3's otherwise.
+     */
+    private static class Resolver {
+
+        private final BasePairingStrategy strategy;
+
+        Resolver(boolean sides, int mode, final List<String> events) {
+            strategy = sides ? new SideConstrained() : new Unconstrained();
+            strategy.setResolutionMode(mode);
+            strategy.addPairingEventListener(new PairingEventListener() {
+                public void pairingEventOccurred(PairingEvent event) {
+                    events.add(event.getType() + ": " + describe(event.getPairersList()));
+                }
+            });
+        }
+
+        List<Swap> resolveSides(ArrayList<Team> pi, ArrayList<Team> delta, PairingMetrics metrics) {
+            return ((SideConstrained) strategy).resolve(pi, delta, metrics);
+        }
+
+        List<Swap> resolveAll(ArrayList<Team> teams, PairingMetrics metrics) {
+            return ((Unconstrained) strategy).resolve(teams, metrics);
+        }
+
+    }
+
+    private static class SideConstrained extends Round2PairingStrategy {
+
+        SideConstrained() {
+            super(StephDemo.HIGHER_FIRST);
+        }
+
+        List<Swap> resolve(ArrayList<Team> pi, ArrayList<Team> delta, PairingMetrics metrics) {
+            return sideConstrainedResolveImpermissibles(pi, delta, metrics);
+        }
+
+    }
+
+    private static class Unconstrained extends Round3PairingStrategy {
+
+        Unconstrained() {
+            super(StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT);
+        }
+
+        List<Swap> resolve(ArrayList<Team> teams, PairingMetrics metrics) {
+            return resolveImpermissibles(teams, metrics);
+        }
+
+    }
+
+    /**
+     * What one resolution produced.
+     */
+    private static class Outcome {
+
+        String stack;
+        List<Swap> pairersList;
+        final PairingMetrics metrics = new PairingMetrics();
+        final List<String> events = new ArrayList<String>();
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Outcome)) {
+                return false;
+            }
+            Outcome other = (Outcome) o;
+            return stack.equals(other.stack)
+                    && describe(pairersList).equals(describe(other.pairersList))
+                    && events.equals(other.events)
+                    && metrics.getSwaps() == other.metrics.getSwaps()
+                    && metrics.getRestarts() == other.metrics.getRestarts()
+                    && metrics.getCandidatesEvaluated() == other.metrics.getCandidatesEvaluated()
+                    && metrics.getMaxReach() == other.metrics.getMaxReach()
+                    && metrics.isUnpairable() == other.metrics.isUnpairable();
+        }
+
+        @Override
+        public int hashCode() {
+            return stack.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "stack: " + stack + "\npairer's list:\n" + describe(pairersList)
+                    + "events: " + events + "\nmetrics: " + metrics;
+        }
+
+    }
+
+}
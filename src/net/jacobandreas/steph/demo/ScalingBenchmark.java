@@ -0,0 +1,91 @@
+package net.jacobandreas.steph.demo;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.simulation.*;
+
+/**
+ * Provides a main method measuring how the cost of simulating a tournament
+ * grows with the size of the field, from a small invitational up to a
+ * several-thousand-team Swiss field.
+ * @author jacob
+ */
+public class ScalingBenchmark {
+
+    /**
+     * The field sizes to measure, unless given on the command line. Smaller
+     * fields than these are occasionally unpairable after eight rounds.
+     */
+    public static final int[] SIZES = { 96, 192, 384, 768, 1536, 3072, 6144 };
+
+    /**
+     * The number of rounds in each tournament, unless given on the command
+     * line
+     */
+    public static final int ROUNDS = 8;
+
+    /**
+     * Roughly how many team-rounds to time at each size, so that every size
+     * takes about as long
+     */
+    public static final long TEAM_ROUNDS = 4000000;
+
+    /**
+     * Pairs, plays and ranks tournaments of each size on a single thread, and
+     * prints the time per tournament and per team-round. If the cost grows as
+     * n log n, the last column stays roughly flat. Timed trials that turned out
+     * unpairable are counted, since giving up on a round costs a different
+     * amount than pairing it (with assertions enabled, such a trial stops the
+     * run at the strategies' sanity checks instead). Optional arguments: the
+     * number of rounds, then the field sizes.
+     */
+    public static void main(String[] args) {
+
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : ROUNDS;
+        int[] sizes = SIZES;
+        if(args.length > 1) {
+            sizes = new int[args.length - 1];
+            for(int i = 1; i < args.length; i++) {
+                sizes[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.println(String.format("%8s %8s %11s %14s %14s %18s",
+                "teams", "trials", "unpairable", "ms/tournament", "ns/team-round", "ns/team-round/lg n"));
+
+        try {
+
+            for(int n : sizes) {
+                SimulationEngine engine = new SimulationEngine(
+                        new NationalsStrategyStack(rounds, StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT));
+                engine.setNumTeams(n);
+                engine.setSeed(0);
+
+                long trials = Math.max(3, TEAM_ROUNDS / ((long) n * rounds));
+
+                // warm up, then time
+                for(long i = 0; i < trials; i++) {
+                    engine.playTrial(i);
+                }
+                long unpairable = 0;
+                long start = System.nanoTime();
+                for(long i = 0; i < trials; i++) {
+                    if(engine.playTrial(trials + i).isUnpairable()) {
+                        unpairable++;
+                    }
+                }
+                double nanos = (double) (System.nanoTime() - start) / trials;
+
+                double perTeamRound = nanos / n / rounds;
+                System.out.println(String.format("%8d %8d %11d %14.3f %14.1f %18.2f",
+                        n, trials, unpairable, nanos / 1e6, perTeamRound, perTeamRound / (Math.log(n) / Math.log(2))));
+            }
+
+        } catch(TournamentStateException e) {
+            System.err.println("A simulated tournament reached an illegal state.\n" +
+                    "Details:\n");
+            e.printStackTrace();
+        }
+
+    }
+
+}
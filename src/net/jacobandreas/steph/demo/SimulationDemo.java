@@ -0,0 +1,65 @@
+package net.jacobandreas.steph.demo;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.simulation.*;
+
+/**
+ * Provides a main method showing how to run a large Monte Carlo simulation of
+ * the nationals pairing scheme across every core.
+ * @author jacob
+ */
+public class SimulationDemo {
+
+    /**
+     * The number of tournaments to simulate, unless given on the command line
+     */
+    public static final long TRIALS = 100000;
+
+    /**
+     * How much a team's performance varies from match to match, in points
+     */
+    public static final double MATCH_NOISE = 4;
+    /**
+     * How much judges disagree about the same performance, in points
+     */
+    public static final double JUDGE_NOISE = 3;
+
+    /**
+     * Simulates many tournaments with the nationals strategies, where each
+     * team is a point stronger than the team numbered below it, and prints
+     * how fairly the teams were ranked, along with the throughput.
+     */
+    public static void main(String[] args) {
+
+        long trials = args.length > 0 ? Long.parseLong(args[0]) : TRIALS;
+
+        SimulationEngine engine = new SimulationEngine(
+                new NationalsStrategyStack(StephDemo.HIGHER_FIRST, StephDemo.PI_LEFT));
+        engine.setNumTeams(StephDemo.NUM_TEAMS);
+        engine.setSeed(0);
+
+        double[] strengths = new double[StephDemo.NUM_TEAMS];
+        for(int i = 0; i < strengths.length; i++) {
+            strengths[i] = i - (strengths.length - 1) / 2.0;
+        }
+        engine.setBallotModel(new LatentStrengthBallotModel(strengths, MATCH_NOISE, JUDGE_NOISE));
+
+        // summarize the trials as they are played, rather than keeping them
+        FairnessAccumulator fairness = new FairnessAccumulator(StephDemo.NUM_TEAMS, 1, 4, 8);
+
+        try {
+
+            SimulationReport report = engine.run(trials, fairness, strengths);
+
+            System.out.print(fairness);
+            System.out.println(report);
+
+        } catch(TournamentStateException e) {
+            System.err.println("A simulated tournament reached an illegal state.\n" +
+                    "Details:\n");
+            e.printStackTrace();
+        }
+
+    }
+
+}
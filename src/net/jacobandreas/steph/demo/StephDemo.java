@@ -1,6 +1,8 @@
 package net.jacobandreas.steph.demo;
 
 import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.simulation.*;
 import net.jacobandreas.steph.strategy.*;
 import net.jacobandreas.steph.tournament.*;
 
@@ -24,12 +26,17 @@ public class StephDemo {
      */
     public static final boolean PI_LEFT = true;
 
+    /**
+     * Where the demo's random draws, coin flips and ballots come from
+     */
+    public static final RandomSource RANDOM = new SplittableRandomSource();
+
     /**
      * Pair this tournament using the set of strategies that would be used
      * at nationals
      */
     public static final PairingStrategy[] STRATEGIES = {
-        new Round1PairingStrategy(),
+        new Round1PairingStrategy(RANDOM.split()),
         new Round2PairingStrategy(HIGHER_FIRST),
         new Round3PairingStrategy(HIGHER_FIRST, PI_LEFT),
         new Round4NationalsPairingStrategy(HIGHER_FIRST)
@@ -38,11 +45,15 @@ public class StephDemo {
     /**
      * Choose coin flips randomly
      */
-    public static final CoinFlipStrategy FLIPPER = new RandomFlipStrategy();
+    public static final CoinFlipStrategy FLIPPER = new RandomFlipStrategy(RANDOM.split());
     /**
      * Use the standard ranker for teams
      */
     public static final RankingStrategy RANKER = new DefaultRankingStrategy(FLIPPER);
+    /**
+     * Score ballots uniformly at random
+     */
+    public static final BallotModel BALLOTS = new UniformBallotModel();
 
 
     /**
@@ -100,7 +111,7 @@ public class StephDemo {
         // lock the pairings
         tournament.getCurrentRound().setPairingLocked(true);
         // add ballots
-        addRandomBallots(tournament);
+        addRandomBallots(tournament, RANDOM);
         // commit ballots
         tournament.getCurrentRound().play();
     }
@@ -110,25 +121,10 @@ public class StephDemo {
      * tournament. Scores are in the range 100-139, to give a realistic
      * distribution.
      * @param tournament the tournament to add ballots to
+     * @param random the source of randomness for scores
      */
-    public static void addRandomBallots(Tournament tournament) {
-        for(Match match : tournament.getCurrentRound().getMatches()) {
-            // pick two random scores
-            int piTotal1 = 100 + (int)(Math.random() * 40);
-            int deltaTotal1 = 100 + (int)(Math.random() * 40);
-
-            // add a new ballot with those scores
-            match.addBallot(new Ballot(match.getPi(), match.getDelta(),
-                    piTotal1, deltaTotal1));
-
-            // et cetera
-            int piTotal2 = 200 + (int)(Math.random() * 40);
-            int deltaTotal2 = 200 + (int)(Math.random() * 40);
-
-            match.addBallot(new Ballot(match.getPi(), match.getDelta(),
-                    piTotal2, deltaTotal2));
-
-        }
+    public static void addRandomBallots(Tournament tournament, RandomSource random) {
+        BALLOTS.addBallots(tournament.getCurrentRound(), random);
     }
 
 }
@@ -0,0 +1,166 @@
+package net.jacobandreas.steph.event;
+
+import java.util.*;
+
+/**
+ * Passes pairing events on to a slow listener (a UI, or a file logger) on a
+ * thread of its own, so that the pairing thread never waits for it. Events
+ * wait in a bounded queue; if the listener falls so far behind that the
+ * queue is full, new events are dropped (and counted) rather than blocking
+ * the pairing.
+ *
+ * The wrapped listener is only ever called from the delivery thread, which
+ * is a daemon, so call close to make sure every queued event is delivered.
+ * Exceptions it throws are counted (see getFailures) rather than passed back
+ * to the pairing.
+ *
+ * @author jacob
+ */
+public class AsyncPairingEventListener implements PairingEventListener {
+
+    /**
+     * The number of events that can wait for delivery, unless otherwise set.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final PairingEventListener listener;
+    private final Thread deliveryThread;
+    private final int capacity;
+
+    // guards everything below: an event is either queued before close or
+    // dropped, never queued after it
+    private final Object lock = new Object();
+    private final ArrayDeque<PairingEvent> queue;
+    private long dropped;
+    private long failures;
+    private RuntimeException lastFailure;
+    private boolean closed;
+
+    /**
+     * Creates a new asynchronous listener with the default capacity.
+     * @param listener the listener to deliver events to
+     */
+    public AsyncPairingEventListener(PairingEventListener listener) {
+        this(listener, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new asynchronous listener.
+     * @param listener the listener to deliver events to
+     * @param capacity the number of events that can wait for delivery
+     */
+    public AsyncPairingEventListener(PairingEventListener listener, int capacity) {
+        if(capacity < 1) {
+            throw new IllegalArgumentException("Need room for at least one event, not " + capacity);
+        }
+        this.listener = listener;
+        this.capacity = capacity;
+        queue = new ArrayDeque<PairingEvent>(capacity);
+        dropped = 0;
+        failures = 0;
+        lastFailure = null;
+        closed = false;
+        deliveryThread = new Thread(new Runnable() {
+            public void run() {
+                deliver();
+            }
+        }, "pairing event delivery");
+        deliveryThread.setDaemon(true);
+        deliveryThread.start();
+    }
+
+    /**
+     * Queues the event for delivery, or drops it if the queue is full or
+     * this listener has been closed. Never waits for the wrapped listener.
+     * @param event the event that occurred
+     */
+    public void pairingEventOccurred(PairingEvent event) {
+        synchronized(lock) {
+            if(closed || queue.size() >= capacity) {
+                dropped++;
+                return;
+            }
+            queue.add(event);
+            lock.notifyAll();
+        }
+    }
+
+    private void deliver() {
+        while(true) {
+            PairingEvent event;
+            synchronized(lock) {
+                while(queue.isEmpty() && !closed) {
+                    try {
+                        lock.wait();
+                    } catch(InterruptedException e) {
+                        // nothing more will be delivered
+                        closed = true;
+                        dropped += queue.size();
+                        queue.clear();
+                        return;
+                    }
+                }
+                if(queue.isEmpty()) {
+                    // closed, and everything queued has been delivered
+                    return;
+                }
+                event = queue.poll();
+            }
+            try {
+                listener.pairingEventOccurred(event);
+            } catch(RuntimeException e) {
+                // a broken listener shouldn't stop later events
+                synchronized(lock) {
+                    failures++;
+                    lastFailure = e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of events dropped because the queue was full or this
+     * listener had been closed (or its delivery thread interrupted).
+     * @return the number of dropped events
+     */
+    public long getDropped() {
+        synchronized(lock) {
+            return dropped;
+        }
+    }
+
+    /**
+     * Gets the number of events the wrapped listener threw an exception on.
+     * Later events are still delivered.
+     * @return the number of failed deliveries
+     */
+    public long getFailures() {
+        synchronized(lock) {
+            return failures;
+        }
+    }
+
+    /**
+     * Gets the exception the wrapped listener threw most recently.
+     * @return the last failure, or null if there has been none
+     */
+    public RuntimeException getLastFailure() {
+        synchronized(lock) {
+            return lastFailure;
+        }
+    }
+
+    /**
+     * Stops accepting events, and waits until every event already queued has
+     * been delivered. Closing again just waits for the same.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void close() throws InterruptedException {
+        synchronized(lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        deliveryThread.join();
+    }
+
+}
@@ -0,0 +1,87 @@
+package net.jacobandreas.steph.event;
+
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Something that happened while pairing a round. Every event says which
+ * strategy raised it and carries copies of the pairer's list and metrics as
+ * they stood at the time (so for PAIRED, the final ones), so it can safely be
+ * kept or handed to another thread. Strategies only create events that
+ * someone is listening for.
+ *
+ * @author jacob
+ */
+public class PairingEvent {
+
+    /**
+     * A round has been paired.
+     */
+    public static final int PAIRED = 1;
+    /**
+     * Every possible swap has been tried without resolving an impermissible,
+     * so the round has been left with an impermissible match.
+     */
+    public static final int UNPAIRABLE = 2;
+    /**
+     * A round needed an unusually long pairer's list (at least
+     * LONG_PAIRERS_LIST_LENGTH swaps).
+     */
+    public static final int LONG_PAIRERS_LIST = 3;
+
+    /**
+     * The number of swaps that makes a pairer's list long.
+     */
+    public static final int LONG_PAIRERS_LIST_LENGTH = 25;
+
+    private final int type;
+    private final PairingStrategy source;
+    private final List<Swap> pairersList;
+    private final PairingMetrics metrics;
+
+    /**
+     * Creates a new event.
+     * @param type PAIRED, UNPAIRABLE or LONG_PAIRERS_LIST
+     * @param source the strategy that raised the event
+     * @param pairersList the swaps made so far
+     * @param metrics the pairing's metrics so far
+     */
+    public PairingEvent(int type, PairingStrategy source, List<Swap> pairersList, PairingMetrics metrics) {
+        this.type = type;
+        this.source = source;
+        this.pairersList = Collections.unmodifiableList(new ArrayList<Swap>(pairersList));
+        this.metrics = new PairingMetrics(metrics);
+    }
+
+    /**
+     * Gets the kind of event.
+     * @return PAIRED, UNPAIRABLE or LONG_PAIRERS_LIST
+     */
+    public int getType() {
+        return type;
+    }
+
+    public PairingStrategy getSource() {
+        return source;
+    }
+
+    public List<Swap> getPairersList() {
+        return pairersList;
+    }
+
+    public PairingMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String toString() {
+        switch(type) {
+            case PAIRED: return "Round paired: " + metrics;
+            case UNPAIRABLE: return "Unpairable round!";
+            case LONG_PAIRERS_LIST: return pairersList.size() + " swaps";
+            default: return "Unknown pairing event " + type;
+        }
+    }
+
+}
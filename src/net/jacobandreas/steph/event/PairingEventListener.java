@@ -10,16 +10,10 @@ package net.jacobandreas.steph.event;
  */
 public interface PairingEventListener {
 
-    /**
-     * String description of an unpairable round.
-     */
-    public static final String UNPAIRABLE = "Unpairable round!";
-
     /**
      * Invoked when a pairing event occurs.
-     * @param event A description of the event that occurred
-     * @param data An object containing additional data about the pairing event
+     * @param event the event that occurred
      */
-    public void pairingEventOccurred(String event, Object data);
+    public void pairingEventOccurred(PairingEvent event);
 
 }
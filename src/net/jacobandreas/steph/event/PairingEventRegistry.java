@@ -0,0 +1,186 @@
+package net.jacobandreas.steph.event;
+
+import java.util.*;
+
+/**
+ * Keeps track of the listeners subscribed to each type of pairing event. The
+ * registry is copy-on-write: subscribing or unsubscribing replaces an
+ * immutable snapshot, so dispatching never locks or copies, and a strategy
+ * can find out whether anyone wants an event with a single check before
+ * building it.
+ *
+ * Safe to use from several threads, though listeners are always called on
+ * the thread that raised the event.
+ *
+ * @author jacob
+ */
+public class PairingEventRegistry {
+
+    /**
+     * An immutable view of the registry. listenersByType[t] holds the
+     * listeners for events of type t, in the order they subscribed.
+     */
+    private static class Snapshot {
+
+        final PairingEventListener[] listeners;
+        final int[] types;
+        final PairingEventListener[][] listenersByType;
+        // bit t is set if anyone listens for events of type t
+        final int subscribed;
+
+        Snapshot(PairingEventListener[] listeners, int[] types) {
+            this.listeners = listeners;
+            this.types = types;
+            int highest = 0;
+            for(int mask : types) {
+                highest = Math.max(highest, 32 - Integer.numberOfLeadingZeros(mask));
+            }
+            listenersByType = new PairingEventListener[highest][];
+            int bits = 0;
+            for(int t = 0; t < highest; t++) {
+                ArrayList<PairingEventListener> forType = new ArrayList<PairingEventListener>();
+                for(int i = 0; i < listeners.length; i++) {
+                    if((types[i] & (1 << t)) != 0) {
+                        forType.add(listeners[i]);
+                    }
+                }
+                listenersByType[t] = forType.toArray(new PairingEventListener[forType.size()]);
+                if(!forType.isEmpty()) {
+                    bits |= 1 << t;
+                }
+            }
+            subscribed = bits;
+        }
+
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(new PairingEventListener[0], new int[0]);
+
+    // bits 1 to 30, one for every type an event can have
+    private static final int ALL_TYPES = 0x7FFFFFFE;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates a new registry with no listeners.
+     */
+    public PairingEventRegistry() {
+        snapshot = EMPTY;
+    }
+
+    /**
+     * Subscribes a listener to every type of event.
+     * @param l the listener to subscribe
+     */
+    public void addListener(PairingEventListener l) {
+        subscribe(l, ALL_TYPES);
+    }
+
+    /**
+     * Subscribes a listener to only the given types of event.
+     * @param l the listener to subscribe
+     * @param types the types of event it wants (e.g. PairingEvent.UNPAIRABLE)
+     */
+    public void addListener(PairingEventListener l, int... types) {
+        int mask = 0;
+        for(int type : types) {
+            mask |= bit(type);
+        }
+        subscribe(l, mask);
+    }
+
+    private synchronized void subscribe(PairingEventListener l, int mask) {
+        Snapshot old = snapshot;
+        int n = old.listeners.length;
+        PairingEventListener[] listeners = Arrays.copyOf(old.listeners, n + 1);
+        int[] types = Arrays.copyOf(old.types, n + 1);
+        listeners[n] = l;
+        types[n] = mask;
+        snapshot = new Snapshot(listeners, types);
+    }
+
+    /**
+     * Unsubscribes a listener from every type of event. Events already being
+     * dispatched may still reach it.
+     * @param l the listener to unsubscribe
+     */
+    public synchronized void removeListener(PairingEventListener l) {
+        Snapshot old = snapshot;
+        ArrayList<PairingEventListener> listeners = new ArrayList<PairingEventListener>();
+        ArrayList<Integer> types = new ArrayList<Integer>();
+        for(int i = 0; i < old.listeners.length; i++) {
+            if(old.listeners[i] != l) {
+                listeners.add(old.listeners[i]);
+                types.add(old.types[i]);
+            }
+        }
+        int[] mask = new int[types.size()];
+        for(int i = 0; i < mask.length; i++) {
+            mask[i] = types.get(i);
+        }
+        snapshot = mask.length == 0 ? EMPTY
+                : new Snapshot(listeners.toArray(new PairingEventListener[mask.length]), mask);
+    }
+
+    /**
+     * Gets every subscribed listener, whatever types it listens for.
+     * @return an array of the listeners, in the order they subscribed
+     */
+    public PairingEventListener[] getListeners() {
+        return snapshot.listeners.clone();
+    }
+
+    /**
+     * Finds out whether anyone listens for a type of event.
+     * @param type the type of event
+     * @return true if the event would reach at least one listener
+     */
+    public boolean isSubscribed(int type) {
+        return (snapshot.subscribed & bit(type)) != 0;
+    }
+
+    /**
+     * Sends an event to every listener subscribed to its type.
+     * @param event the event to send
+     */
+    public void dispatch(PairingEvent event) {
+        Snapshot s = snapshot;
+        if((s.subscribed & bit(event.getType())) == 0) {
+            return;
+        }
+        for(PairingEventListener l : s.listenersByType[event.getType()]) {
+            l.pairingEventOccurred(event);
+        }
+    }
+
+    /**
+     * Sends an event to every listener subscribed to its type, only creating
+     * the event if there are any.
+     * @param type the type of event
+     * @param supplier creates the event
+     */
+    public void dispatch(int type, PairingEventSupplier supplier) {
+        Snapshot s = snapshot;
+        if((s.subscribed & bit(type)) == 0) {
+            return;
+        }
+        PairingEvent event = supplier.createEvent();
+        assert event.getType() == type : "Sanity check failed: supplied event has the wrong type";
+        for(PairingEventListener l : s.listenersByType[type]) {
+            l.pairingEventOccurred(event);
+        }
+    }
+
+    /**
+     * Gets the bit for a type of event in a subscription mask.
+     * @param type the type of event
+     * @return the type's bit
+     */
+    private static int bit(int type) {
+        if(type < 1 || type > 30) {
+            throw new IllegalArgumentException("Unknown pairing event type " + type);
+        }
+        return 1 << type;
+    }
+
+}
@@ -0,0 +1,17 @@
+package net.jacobandreas.steph.event;
+
+/**
+ * Creates a pairing event on demand, so that an event nobody listens for is
+ * never built.
+ *
+ * @author jacob
+ */
+public interface PairingEventSupplier {
+
+    /**
+     * Creates the event.
+     * @return the event to dispatch
+     */
+    public PairingEvent createEvent();
+
+}
@@ -0,0 +1,60 @@
+package net.jacobandreas.steph.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for adding a round to a tournament, from the start
+ * of pairing until the round is in place.
+ *
+ * @author jacob
+ */
+@Name("net.jacobandreas.steph.AddRound")
+@Label("Add Round")
+@Category({"STEPH", "Tournament"})
+@Description("Pairing a new round of a tournament and adding it")
+@Enabled(false)
+@StackTrace(false)
+public class AddRoundEvent extends Event {
+
+    @Label("Round")
+    @Description("The number of the round, starting from 1")
+    int round;
+
+    @Label("Teams")
+    int teams;
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Swaps")
+    @Description("The length of the pairer's list")
+    int swaps;
+
+    @Label("Max Reach")
+    int maxReach;
+
+    @Label("Unpairable")
+    boolean unpairable;
+
+    /**
+     * Commits this event, if it is being recorded.
+     * @param round the number of the round
+     * @param teams the number of teams in the tournament
+     * @param strategy the strategy that paired the round
+     * @param swaps the length of the pairer's list
+     * @param maxReach the farthest any swap reached
+     * @param unpairable whether impermissibles were left paired
+     */
+    public void record(int round, int teams, Object strategy, int swaps, int maxReach, boolean unpairable) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.teams = teams;
+            this.strategy = strategy.getClass().getSimpleName();
+            this.swaps = swaps;
+            this.maxReach = maxReach;
+            this.unpairable = unpairable;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package net.jacobandreas.steph.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for a pairing strategy pairing one round.
+ *
+ * @author jacob
+ */
+@Name("net.jacobandreas.steph.PairRound")
+@Label("Pair Round")
+@Category({"STEPH", "Pairing"})
+@Description("A pairing strategy pairing one round")
+@Enabled(false)
+@StackTrace(false)
+public class PairRoundEvent extends Event {
+
+    @Label("Round")
+    @Description("The number of the round being paired, starting from 1")
+    int round;
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Teams")
+    int teams;
+
+    @Label("Sort Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long sortTime;
+
+    @Label("Resolve Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long resolveTime;
+
+    @Label("Swaps")
+    int swaps;
+
+    @Label("Max Reach")
+    int maxReach;
+
+    @Label("Restarts")
+    int restarts;
+
+    @Label("Candidates Evaluated")
+    int candidatesEvaluated;
+
+    /**
+     * Commits this event, if it is being recorded.
+     * @param round the number of the round
+     * @param strategy the strategy that paired the round
+     * @param teams the number of teams paired
+     * @param sortTime the time spent sorting, in nanoseconds
+     * @param resolveTime the time spent resolving impermissibles, in
+     * nanoseconds
+     * @param swaps the length of the pairer's list
+     * @param maxReach the farthest any swap reached
+     * @param restarts the number of swaps that sent resolution back up the
+     * stack
+     * @param candidatesEvaluated the number of candidate swaps considered
+     */
+    public void record(int round, Object strategy, int teams, long sortTime, long resolveTime, int swaps,
+            int maxReach, int restarts, int candidatesEvaluated) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.strategy = strategy.getClass().getSimpleName();
+            this.teams = teams;
+            this.sortTime = sortTime;
+            this.resolveTime = resolveTime;
+            this.swaps = swaps;
+            this.maxReach = maxReach;
+            this.restarts = restarts;
+            this.candidatesEvaluated = candidatesEvaluated;
+            commit();
+        }
+    }
+
+}
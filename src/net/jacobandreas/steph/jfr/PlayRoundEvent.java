@@ -0,0 +1,39 @@
+package net.jacobandreas.steph.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for playing a round, adding every match's ballots to
+ * its teams' records.
+ *
+ * @author jacob
+ */
+@Name("net.jacobandreas.steph.PlayRound")
+@Label("Play Round")
+@Category({"STEPH", "Tournament"})
+@Description("Adding a round's ballots to its teams' records")
+@Enabled(false)
+@StackTrace(false)
+public class PlayRoundEvent extends Event {
+
+    @Label("Round")
+    @Description("The number of the round being played, starting from 1")
+    int round;
+
+    @Label("Teams")
+    int teams;
+
+    /**
+     * Commits this event, if it is being recorded.
+     * @param round the number of the round
+     * @param teams the number of teams in the round
+     */
+    public void record(int round, int teams) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.teams = teams;
+            commit();
+        }
+    }
+
+}
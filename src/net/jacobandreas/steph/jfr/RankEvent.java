@@ -0,0 +1,43 @@
+package net.jacobandreas.steph.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for a ranking strategy producing final rankings.
+ *
+ * @author jacob
+ */
+@Name("net.jacobandreas.steph.Rank")
+@Label("Rank Teams")
+@Category({"STEPH", "Ranking"})
+@Description("A ranking strategy ordering the teams at the end of a tournament")
+@Enabled(false)
+@StackTrace(false)
+public class RankEvent extends Event {
+
+    @Label("Round")
+    @Description("The number of the last round played before ranking")
+    int round;
+
+    @Label("Strategy")
+    String strategy;
+
+    @Label("Teams")
+    int teams;
+
+    /**
+     * Commits this event, if it is being recorded.
+     * @param round the number of the last round played
+     * @param strategy the ranking strategy
+     * @param teams the number of teams ranked
+     */
+    public void record(int round, Object strategy, int teams) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.strategy = strategy.getClass().getSimpleName();
+            this.teams = teams;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package net.jacobandreas.steph.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for resolving the impermissibles in one round's card
+ * stacks.
+ *
+ * @author jacob
+ */
+@Name("net.jacobandreas.steph.Resolve")
+@Label("Resolve Impermissibles")
+@Category({"STEPH", "Pairing"})
+@Description("Swapping cards until no impermissible matches are left")
+@Enabled(false)
+@StackTrace(false)
+public class ResolveEvent extends Event {
+
+    @Label("Round")
+    @Description("The number of the round being paired, starting from 1")
+    int round;
+
+    @Label("Teams")
+    int teams;
+
+    @Label("Side Constrained")
+    boolean sideConstrained;
+
+    @Label("Manual Cards")
+    @Description("Whether every swap went back to the top of the stack")
+    boolean manualCards;
+
+    @Label("Rows Checked")
+    int rowsChecked;
+
+    @Label("Restarts")
+    int restarts;
+
+    @Label("Swaps")
+    int swaps;
+
+    @Label("Max Reach")
+    int maxReach;
+
+    @Label("Unpairable")
+    boolean unpairable;
+
+    /**
+     * Commits this event, if it is being recorded.
+     * @param round the number of the round
+     * @param teams the number of teams in the stacks
+     * @param sideConstrained whether the round was side-constrained
+     * @param manualCards whether resolution used MANUAL_CARDS mode
+     * @param rowsChecked the number of rows checked
+     * @param restarts the number of swaps that sent resolution back up the
+     * stack
+     * @param swaps the number of swaps made
+     * @param maxReach the farthest any swap reached
+     * @param unpairable whether resolution gave up
+     */
+    public void record(int round, int teams, boolean sideConstrained, boolean manualCards, int rowsChecked,
+            int restarts, int swaps, int maxReach, boolean unpairable) {
+        if(shouldCommit()) {
+            this.round = round;
+            this.teams = teams;
+            this.sideConstrained = sideConstrained;
+            this.manualCards = manualCards;
+            this.rowsChecked = rowsChecked;
+            this.restarts = restarts;
+            this.swaps = swaps;
+            this.maxReach = maxReach;
+            this.unpairable = unpairable;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package net.jacobandreas.steph.random;
+
+/**
+ * A source of randomness for strategies, ballot generators and simulations.
+ * Sources are not thread-safe: each thread (or each simulated tournament)
+ * should split off a source of its own, so that no state is shared and every
+ * run can be reproduced from its seed.
+ *
+ * @author jacob
+ */
+public interface RandomSource {
+
+    /**
+     * Gets a uniformly distributed int between 0 (inclusive) and the bound
+     * (exclusive).
+     * @param bound the upper bound; must be positive
+     * @return the next int
+     */
+    public int nextInt(int bound);
+
+    /**
+     * Gets a uniformly distributed long.
+     * @return the next long
+     */
+    public long nextLong();
+
+    /**
+     * Gets a uniformly distributed double between 0 (inclusive) and 1
+     * (exclusive).
+     * @return the next double
+     */
+    public double nextDouble();
+
+    /**
+     * Gets a normally distributed double with mean 0 and standard deviation 1.
+     * @return the next gaussian
+     */
+    public double nextGaussian();
+
+    /**
+     * Gets a random boolean.
+     * @return the next boolean
+     */
+    public boolean nextBoolean();
+
+    /**
+     * Creates a new, independent source, advancing this one. The new source
+     * shares no state with this one, so it can be handed to another thread.
+     * @return the new source
+     */
+    public RandomSource split();
+
+}
@@ -0,0 +1,79 @@
+package net.jacobandreas.steph.random;
+
+import java.util.*;
+
+/**
+ * A seedable, splittable RandomSource backed by java.util.SplittableRandom.
+ * Unlike Math.random, it has no shared state to contend for, so simulations
+ * scale with the number of threads, and any run can be replayed from its
+ * seed.
+ *
+ * @author jacob
+ */
+public class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    // the second of the pair of gaussians generated by the polar method
+    private double nextGaussian;
+    private boolean haveNextGaussian;
+
+    /**
+     * Creates a new source with an unpredictable seed.
+     */
+    public SplittableRandomSource() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a new source with the given seed.
+     * @param seed the seed
+     */
+    public SplittableRandomSource(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+        haveNextGaussian = false;
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+
+    public double nextGaussian() {
+        if(haveNextGaussian) {
+            haveNextGaussian = false;
+            return nextGaussian;
+        }
+        // Marsaglia's polar method
+        double u, v, s;
+        do {
+            u = 2 * random.nextDouble() - 1;
+            v = 2 * random.nextDouble() - 1;
+            s = u * u + v * v;
+        } while(s >= 1 || s == 0);
+        double scale = Math.sqrt(-2 * Math.log(s) / s);
+        nextGaussian = v * scale;
+        haveNextGaussian = true;
+        return u * scale;
+    }
+
+    public boolean nextBoolean() {
+        return random.nextBoolean();
+    }
+
+    public RandomSource split() {
+        return new SplittableRandomSource(random.split());
+    }
+
+}
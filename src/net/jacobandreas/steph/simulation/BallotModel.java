@@ -0,0 +1,55 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Decides the scores on simulated ballots. Scores are generated for many
+ * matches at once into plain int arrays, and Ballot objects are only created
+ * once every score is known.
+ *
+ * Models are shared by every worker thread in a simulation, so they must not
+ * keep any state between calls; all randomness comes from the source passed
+ * in.
+ *
+ * A campaign only resumes from a checkpoint saved with the same model, which
+ * it recognises by class and toString, so implementations with settings
+ * should describe them in toString.
+ *
+ * @author jacob
+ */
+public interface BallotModel {
+
+    /**
+     * Generates the scores for Match.MAX_BALLOTS ballots in each of the given
+     * matches. The scores for ballot b of match m go in position
+     * m * Match.MAX_BALLOTS + b of each buffer.
+     * @param pis the pros/plaintiff team in each match
+     * @param deltas the defense/respondent team in each match
+     * @param matches the number of matches to score
+     * @param random the source of randomness for scores
+     * @param piTotals receives the pros/plaintiff team's total on each ballot
+     * @param deltaTotals receives the defense/respondent team's total on each
+     * ballot
+     */
+    public void generateScores(Team[] pis, Team[] deltas, int matches,
+            RandomSource random, int[] piTotals, int[] deltaTotals);
+
+    /**
+     * Adds Match.MAX_BALLOTS ballots to each match in the round.
+     * @param round the round to add ballots to
+     * @param random the source of randomness for scores
+     */
+    public void addBallots(Round round, RandomSource random);
+
+    /**
+     * Adds Match.MAX_BALLOTS ballots to each match in every one of the rounds
+     * (e.g. the same round of many simulated tournaments), generating all of
+     * their scores in one batch.
+     * @param rounds the rounds to add ballots to
+     * @param random the source of randomness for scores
+     */
+    public void addBallots(List<Round> rounds, RandomSource random);
+
+}
@@ -0,0 +1,53 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Collects the matches to be scored into arrays, has the model fill in every
+ * score, and only then creates the ballots. Subclasses just implement
+ * generateScores.
+ *
+ * @author jacob
+ */
+public abstract class BaseBallotModel implements BallotModel {
+
+    public void addBallots(Round round, RandomSource random) {
+        addBallots(Collections.singletonList(round), random);
+    }
+
+    public void addBallots(List<Round> rounds, RandomSource random) {
+        int matches = 0;
+        for(Round round : rounds) {
+            matches += round.getNumMatches();
+        }
+
+        Team[] pis = new Team[matches];
+        Team[] deltas = new Team[matches];
+        int m = 0;
+        for(Round round : rounds) {
+            for(Match match : round.getMatches()) {
+                pis[m] = match.getPi();
+                deltas[m] = match.getDelta();
+                m++;
+            }
+        }
+
+        int[] piTotals = new int[matches * Match.MAX_BALLOTS];
+        int[] deltaTotals = new int[matches * Match.MAX_BALLOTS];
+        generateScores(pis, deltas, matches, random, piTotals, deltaTotals);
+
+        int k = 0;
+        for(Round round : rounds) {
+            for(Match match : round.getMatches()) {
+                for(int b = 0; b < Match.MAX_BALLOTS; b++) {
+                    match.addBallot(new Ballot(match.getPi(), match.getDelta(),
+                            piTotals[k], deltaTotals[k]));
+                    k++;
+                }
+            }
+        }
+    }
+
+}
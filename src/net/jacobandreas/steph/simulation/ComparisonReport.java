@@ -0,0 +1,92 @@
+package net.jacobandreas.steph.simulation;
+
+import java.util.*;
+
+/**
+ * The results of a StackComparison: every stack's metrics, and the paired
+ * differences between each stack and the baseline (the first stack).
+ *
+ * @author jacob
+ */
+public class ComparisonReport {
+
+    private final List<String> names;
+    private final TrialMetric[] metrics;
+    private final StackComparison.Tally tally;
+    private final long elapsedNanos;
+
+    ComparisonReport(List<String> names, TrialMetric[] metrics, StackComparison.Tally tally, long elapsedNanos) {
+        this.names = Collections.unmodifiableList(new ArrayList<String>(names));
+        this.metrics = metrics;
+        this.tally = tally;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<String> getStackNames() {
+        return names;
+    }
+
+    public long getTrials() {
+        return tally.trials;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets one stack's values of one metric.
+     * @param stack the index of the stack, in the order it was added
+     * @param metric the index of the metric
+     * @return the statistic
+     */
+    public RunningStatistic getStatistic(int stack, int metric) {
+        return tally.values[stack][metric];
+    }
+
+    /**
+     * Gets the trial-by-trial difference between one stack's values of a
+     * metric and the baseline stack's.
+     * @param stack the index of the stack
+     * @param metric the index of the metric
+     * @return the statistic of the differences
+     */
+    public RunningStatistic getDifference(int stack, int metric) {
+        return tally.differences[stack][metric];
+    }
+
+    /**
+     * Gets how many times more trials it would have taken to measure the
+     * difference between a stack and the baseline as precisely with two
+     * independent runs.
+     * @param stack the index of the stack
+     * @param metric the index of the metric
+     * @return the variance of an unpaired difference over the variance of
+     * the paired one, or infinity if the paired differences never varied
+     */
+    public double getVarianceReduction(int stack, int metric) {
+        double unpaired = getStatistic(stack, metric).getVariance() + getStatistic(0, metric).getVariance();
+        double paired = getDifference(stack, metric).getVariance();
+        return paired == 0 ? Double.POSITIVE_INFINITY : unpaired / paired;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(getTrials() + " paired trials in " + String.format("%.3f", elapsedNanos / 1e9) + "s\n");
+        for(int m = 0; m < metrics.length; m++) {
+            s.append(metrics[m].getName() + ":\n");
+            for(int st = 0; st < names.size(); st++) {
+                s.append("   " + names.get(st) + ": " + getStatistic(st, m));
+                if(st > 0) {
+                    s.append(String.format(", vs %s: %+.4f +/- %.4f (%.1fx fewer trials than unpaired)",
+                            names.get(0), getDifference(st, m).getMean(),
+                            getDifference(st, m).getHalfWidth(), getVarianceReduction(st, m)));
+                }
+                s.append("\n");
+            }
+        }
+        return s.toString();
+    }
+
+}
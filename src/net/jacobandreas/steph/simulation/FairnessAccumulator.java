@@ -0,0 +1,264 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Accumulates the metrics we study across any number of trials, in constant
+ * memory: how well the final rankings correlate with the teams' true
+ * strengths, how many of the strongest teams finish at the top, how many
+ * swaps each round's pairer's list needs and how far the tabulator has to
+ * reach for them, and how often a round can't be paired at all.
+ *
+ * @author jacob
+ */
+public class FairnessAccumulator implements TrialAccumulator<FairnessAccumulator> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Selects the rank correlation.
+     */
+    public static final StatisticSelector<FairnessAccumulator> RANK_CORRELATION =
+            new StatisticSelector<FairnessAccumulator>() {
+        public String getName() {
+            return "rank correlation";
+        }
+
+        public RunningStatistic select(FairnessAccumulator accumulator) {
+            return accumulator.getRankCorrelation();
+        }
+    };
+
+    /**
+     * Selects the unpairable rate.
+     */
+    public static final StatisticSelector<FairnessAccumulator> UNPAIRABLE_RATE =
+            new StatisticSelector<FairnessAccumulator>() {
+        public String getName() {
+            return "unpairable rate";
+        }
+
+        public RunningStatistic select(FairnessAccumulator accumulator) {
+            return accumulator.getUnpairable();
+        }
+    };
+
+    private final int numTeams;
+    private final int[] topK;
+
+    private long trials;
+    private long unpairableTrials;
+    // 1 for each unpairable trial and 0 otherwise, for confidence intervals
+    private final RunningStatistic unpairable;
+    private final RunningStatistic rankCorrelation;
+    private final RunningStatistic[] topKAccuracy;
+    // one per round, added as rounds are seen
+    private final ArrayList<RunningStatistic> swapsByRound;
+    private final Histogram swaps;
+    private final Histogram reach;
+
+    /**
+     * Creates a new, empty accumulator.
+     * @param numTeams the number of teams in each trial
+     * @param topK the cutoffs to measure top-k accuracy at (e.g. 1 and 10)
+     */
+    public FairnessAccumulator(int numTeams, int... topK) {
+        for(int k : topK) {
+            if(k < 1 || k > numTeams) {
+                throw new IllegalArgumentException("Can't take the top " + k + " of " + numTeams + " teams");
+            }
+        }
+        this.numTeams = numTeams;
+        this.topK = topK.clone();
+        unpairable = new RunningStatistic(true);
+        rankCorrelation = new RunningStatistic();
+        topKAccuracy = new RunningStatistic[topK.length];
+        for(int i = 0; i < topK.length; i++) {
+            // the top 1 is either right or wrong
+            topKAccuracy[i] = new RunningStatistic(topK[i] == 1);
+        }
+        swapsByRound = new ArrayList<RunningStatistic>();
+        swaps = new Histogram(numTeams);
+        // a swap can reach at most the whole stack
+        reach = new Histogram(numTeams + 1);
+    }
+
+    public FairnessAccumulator newEmpty() {
+        return new FairnessAccumulator(numTeams, topK);
+    }
+
+    public void add(Trial trial, double[] strengths) {
+        trials++;
+        if(trial.isUnpairable()) {
+            unpairableTrials++;
+        }
+        unpairable.add(trial.isUnpairable() ? 1 : 0);
+
+        rankCorrelation.add(FairnessMetrics.RANK_CORRELATION.measure(trial, strengths));
+
+        int[] trueRanks = FairnessMetrics.trueRanks(strengths);
+        List<Team> ranking = trial.getRanking();
+        for(int i = 0; i < topK.length; i++) {
+            int k = topK[i];
+            int hits = 0;
+            for(int place = 0; place < k; place++) {
+                if(trueRanks[ranking.get(place).getIndex()] < k) {
+                    hits++;
+                }
+            }
+            topKAccuracy[i].add((double) hits / k);
+        }
+
+        List<List<Swap>> pairersLists = trial.getPairersLists();
+        for(int r = 0; r < pairersLists.size(); r++) {
+            List<Swap> list = pairersLists.get(r);
+            roundStatistic(r).add(list.size());
+            swaps.add(list.size());
+            for(Swap s : list) {
+                reach.add(s.getReach());
+            }
+        }
+    }
+
+    public void merge(FairnessAccumulator other) {
+        if(other.numTeams != numTeams || !Arrays.equals(other.topK, topK)) {
+            throw new IllegalArgumentException("Can't merge accumulators with different settings");
+        }
+        trials += other.trials;
+        unpairableTrials += other.unpairableTrials;
+        unpairable.merge(other.unpairable);
+        rankCorrelation.merge(other.rankCorrelation);
+        for(int i = 0; i < topK.length; i++) {
+            topKAccuracy[i].merge(other.topKAccuracy[i]);
+        }
+        for(int r = 0; r < other.swapsByRound.size(); r++) {
+            roundStatistic(r).merge(other.swapsByRound.get(r));
+        }
+        swaps.merge(other.swaps);
+        reach.merge(other.reach);
+    }
+
+    /**
+     * Gets the statistic of pairer's list lengths for a round, creating it
+     * if this is the first time the round has been seen.
+     * @param round the index of the round
+     * @return the round's statistic
+     */
+    private RunningStatistic roundStatistic(int round) {
+        while(swapsByRound.size() <= round) {
+            swapsByRound.add(new RunningStatistic());
+        }
+        return swapsByRound.get(round);
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    /**
+     * Gets the fraction of trials in which some round couldn't be paired.
+     * @return the unpairable rate, or 0 if there have been no trials
+     */
+    public double getUnpairableRate() {
+        return trials == 0 ? 0 : (double) unpairableTrials / trials;
+    }
+
+    public long getUnpairableTrials() {
+        return unpairableTrials;
+    }
+
+    /**
+     * Gets whether each trial was unpairable, as a statistic whose mean is
+     * the unpairable rate.
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getUnpairable() {
+        return unpairable;
+    }
+
+    /**
+     * Gets Spearman's correlation between true strength and final ranking.
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getRankCorrelation() {
+        return rankCorrelation;
+    }
+
+    /**
+     * Gets the fraction of the truly strongest k teams that finished in the
+     * top k.
+     * @param k one of the cutoffs this accumulator was created with
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getTopKAccuracy(int k) {
+        for(int i = 0; i < topK.length; i++) {
+            if(topK[i] == k) {
+                return topKAccuracy[i];
+            }
+        }
+        throw new IllegalArgumentException("Not measuring top-" + k + " accuracy");
+    }
+
+    /**
+     * Selects the top-k accuracy at one cutoff (top-1 accuracy being the
+     * probability that the strongest team finishes first).
+     * @param k one of the cutoffs the accumulator was created with
+     * @return a selector for the statistic
+     */
+    public static StatisticSelector<FairnessAccumulator> topKAccuracy(final int k) {
+        return new StatisticSelector<FairnessAccumulator>() {
+            public String getName() {
+                return "top-" + k + " accuracy";
+            }
+
+            public RunningStatistic select(FairnessAccumulator accumulator) {
+                return accumulator.getTopKAccuracy(k);
+            }
+        };
+    }
+
+    /**
+     * Gets the number of swaps in one round's pairer's list.
+     * @param round the index of the round
+     * @return the statistic over all trials, or an empty one if the round
+     * was never played
+     */
+    public RunningStatistic getSwapsInRound(int round) {
+        return round < swapsByRound.size() ? swapsByRound.get(round) : new RunningStatistic();
+    }
+
+    /**
+     * Gets the distribution of pairer's list lengths over every round.
+     * @return the histogram of swaps per round
+     */
+    public Histogram getSwaps() {
+        return swaps;
+    }
+
+    /**
+     * Gets the distribution of how far the tabulator reached for each swap.
+     * @return the histogram of reaches
+     */
+    public Histogram getReach() {
+        return reach;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("trials: " + trials + "\n");
+        s.append("rank correlation: " + rankCorrelation + "\n");
+        for(int i = 0; i < topK.length; i++) {
+            s.append("top-" + topK[i] + " accuracy: " + topKAccuracy[i] + "\n");
+        }
+        for(int r = 0; r < swapsByRound.size(); r++) {
+            s.append("round " + (r + 1) + " swaps: " + swapsByRound.get(r) + "\n");
+        }
+        s.append("swaps per round: " + swaps + "\n");
+        s.append("reach: " + reach + "\n");
+        s.append(String.format("unpairable: %d (%.6f)%n", unpairableTrials, getUnpairableRate()));
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,100 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Standard metrics of how faithfully a tournament's final ranking reflects
+ * the teams' true strengths.
+ *
+ * @author jacob
+ */
+public class FairnessMetrics {
+
+    private FairnessMetrics() {
+    }
+
+    /**
+     * Spearman's rank correlation between true strength and final ranking:
+     * 1 if the teams finish exactly in order of strength.
+     */
+    public static final TrialMetric RANK_CORRELATION = new TrialMetric() {
+        public String getName() {
+            return "rank correlation";
+        }
+
+        public double measure(Trial trial, double[] strengths) {
+            int[] trueRanks = trueRanks(strengths);
+            List<Team> ranking = trial.getRanking();
+            long n = ranking.size();
+            double sumSquares = 0;
+            for(int i = 0; i < n; i++) {
+                double d = trueRanks[ranking.get(i).getIndex()] - i;
+                sumSquares += d * d;
+            }
+            return 1 - 6 * sumSquares / (n * (n * n - 1));
+        }
+    };
+
+    /**
+     * 1 if the strongest team finished first, and 0 otherwise.
+     */
+    public static final TrialMetric STRONGEST_FINISHES_FIRST = new TrialMetric() {
+        public String getName() {
+            return "strongest first";
+        }
+
+        public double measure(Trial trial, double[] strengths) {
+            int strongest = 0;
+            for(int i = 1; i < strengths.length; i++) {
+                if(strengths[i] > strengths[strongest]) {
+                    strongest = i;
+                }
+            }
+            return trial.getRanking().get(0).getIndex() == strongest ? 1 : 0;
+        }
+    };
+
+    /**
+     * The average number of places between where each team finished and where
+     * its strength says it should have.
+     */
+    public static final TrialMetric MEAN_RANK_ERROR = new TrialMetric() {
+        public String getName() {
+            return "mean rank error";
+        }
+
+        public double measure(Trial trial, double[] strengths) {
+            int[] trueRanks = trueRanks(strengths);
+            List<Team> ranking = trial.getRanking();
+            double total = 0;
+            for(int i = 0; i < ranking.size(); i++) {
+                total += Math.abs(trueRanks[ranking.get(i).getIndex()] - i);
+            }
+            return total / ranking.size();
+        }
+    };
+
+    /**
+     * Works out where each team should finish, strongest first.
+     * @param strengths each team's strength
+     * @return each team's true place, counting from 0
+     */
+    static int[] trueRanks(final double[] strengths) {
+        Integer[] order = new Integer[strengths.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                return Double.compare(strengths[b], strengths[a]);
+            }
+        });
+        int[] ranks = new int[strengths.length];
+        for(int place = 0; place < order.length; place++) {
+            ranks[order[place]] = place;
+        }
+        return ranks;
+    }
+
+}
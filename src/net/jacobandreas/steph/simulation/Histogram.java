@@ -0,0 +1,113 @@
+package net.jacobandreas.steph.simulation;
+
+import java.io.*;
+
+/**
+ * Counts how often each small non-negative integer occurs, in constant
+ * space. Values at or above the number of bins are counted together as
+ * overflow. Histograms with the same number of bins can be merged.
+ *
+ * @author jacob
+ */
+public class Histogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // counts[bins] is the overflow
+    private final long[] counts;
+    private long total;
+    private long sum;
+
+    /**
+     * Creates a new, empty histogram.
+     * @param bins the number of values to count separately (0 to bins - 1)
+     */
+    public Histogram(int bins) {
+        if(bins < 1) {
+            throw new IllegalArgumentException("Need at least one bin, not " + bins);
+        }
+        counts = new long[bins + 1];
+    }
+
+    /**
+     * Counts a value.
+     * @param value the value, which can't be negative
+     */
+    public void add(int value) {
+        if(value < 0) {
+            throw new IllegalArgumentException("Can't count negative value " + value);
+        }
+        counts[Math.min(value, counts.length - 1)]++;
+        total++;
+        sum += value;
+    }
+
+    /**
+     * Adds every value counted by another histogram to this one.
+     * @param other a histogram with the same number of bins; it is not
+     * changed
+     */
+    public void merge(Histogram other) {
+        if(other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Can't merge histograms with different bins");
+        }
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        sum += other.sum;
+    }
+
+    public int getBins() {
+        return counts.length - 1;
+    }
+
+    /**
+     * Gets how often a value occurred.
+     * @param value a value less than the number of bins
+     * @return the number of times it was counted
+     */
+    public long getCount(int value) {
+        if(value < 0 || value >= getBins()) {
+            throw new IllegalArgumentException("No bin for " + value);
+        }
+        return counts[value];
+    }
+
+    /**
+     * Gets how many values were too big for a bin of their own.
+     * @return the number of values at least as large as the number of bins
+     */
+    public long getOverflow() {
+        return counts[counts.length - 1];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the mean of the values (including overflow, which is counted
+     * exactly).
+     * @return the mean, or 0 if there are no values
+     */
+    public double getMean() {
+        return total == 0 ? 0 : (double) sum / total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for(int i = 0; i < getBins(); i++) {
+            if(counts[i] > 0) {
+                s.append(i + ": " + counts[i] + "  ");
+            }
+        }
+        if(getOverflow() > 0) {
+            s.append(getBins() + "+: " + getOverflow() + "  ");
+        }
+        s.append(String.format("(mean %.3f)", getMean()));
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,150 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Scores ballots from each team's underlying strength. In every match, each
+ * team gives a performance equal to its strength plus some match noise (a
+ * good or bad day), and every judge then scores that performance with some
+ * judge noise of their own. Because the ballots in a match share the teams'
+ * performances, they are correlated: the more match noise relative to judge
+ * noise, the more often the ballots agree.
+ *
+ * Strengths are given in points above or below MEAN_SCORE, and are looked up
+ * by each team's index in its tournament.
+ *
+ * A team's luck in a round (its match noise, and the judge noise on each of
+ * its ballots) does not depend on whom it meets. Each batch draws a single
+ * seed from the source it is given, and every team's noise is mixed from
+ * that seed, the team's slot in the batch and the team's index. Two
+ * tournaments scored from the same source therefore give each team the same
+ * luck in each round, however differently they were paired, which is what
+ * common random numbers need.
+ *
+ * A batch may hold matches from many tournaments (or rounds). Its matches
+ * are taken in order, and a new slot starts at the first match with a team
+ * whose index has already played in the current one, so teams that share an
+ * index in different tournaments still get independent noise. Matches from
+ * one round should therefore be kept together, as BaseBallotModel does.
+ *
+ * @author jacob
+ */
+public class LatentStrengthBallotModel extends BaseBallotModel {
+
+    /**
+     * The score a team of strength 0 gets on average.
+     */
+    public static final double MEAN_SCORE = 120;
+
+    private final double[] strengths;
+    private final double matchNoise;
+    private final double judgeNoise;
+
+    /**
+     * Creates a new model.
+     * @param strengths each team's strength, indexed by the team's index in
+     * the tournament
+     * @param matchNoise the standard deviation of a team's performance from
+     * match to match
+     * @param judgeNoise the standard deviation of a judge's score for a given
+     * performance
+     */
+    public LatentStrengthBallotModel(double[] strengths, double matchNoise, double judgeNoise) {
+        if(matchNoise < 0 || judgeNoise < 0) {
+            throw new IllegalArgumentException("Noise can't be negative");
+        }
+        this.strengths = strengths.clone();
+        this.matchNoise = matchNoise;
+        this.judgeNoise = judgeNoise;
+    }
+
+    /**
+     * Generates the scores for the given matches, which may come from any
+     * number of tournaments.
+     * @param pis the pros/plaintiff team in each match
+     * @param deltas the defense/respondent team in each match
+     * @param matches the number of matches to score
+     * @param random the source of the batch's seed
+     * @param piTotals receives the pros/plaintiff team's total on each ballot
+     * @param deltaTotals receives the defense/respondent team's total on each
+     * ballot
+     */
+    @Override
+    public void generateScores(Team[] pis, Team[] deltas, int matches,
+            RandomSource random, int[] piTotals, int[] deltaTotals) {
+        long batchSeed = random.nextLong();
+        // the slot (plus one) in which each team index last played
+        int[] playedIn = new int[strengths.length];
+        int slot = 0;
+        long slotSeed = SimulationEngine.trialSeed(batchSeed, slot);
+        int k = 0;
+        for(int m = 0; m < matches; m++) {
+            double piStrength = strengthOf(pis[m]);
+            double deltaStrength = strengthOf(deltas[m]);
+            int pi = pis[m].getIndex();
+            int delta = deltas[m].getIndex();
+            if(playedIn[pi] == slot + 1 || playedIn[delta] == slot + 1) {
+                slot++;
+                slotSeed = SimulationEngine.trialSeed(batchSeed, slot);
+            }
+            playedIn[pi] = slot + 1;
+            playedIn[delta] = slot + 1;
+
+            long piLuck = SimulationEngine.trialSeed(slotSeed, pi);
+            long deltaLuck = SimulationEngine.trialSeed(slotSeed, delta);
+            double piPerformance = piStrength + matchNoise * gaussian(piLuck, 0);
+            double deltaPerformance = deltaStrength + matchNoise * gaussian(deltaLuck, 0);
+            for(int b = 0; b < Match.MAX_BALLOTS; b++) {
+                piTotals[k] = score(piPerformance + judgeNoise * gaussian(piLuck, b + 1));
+                deltaTotals[k] = score(deltaPerformance + judgeNoise * gaussian(deltaLuck, b + 1));
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Gets one standard normal draw from a team's luck, by the Box-Muller
+     * transform of two SplitMix64 outputs. Allocates nothing, so it is cheap
+     * to call for every ballot.
+     * @param luck the team's key for the slot
+     * @param draw which draw to get (0 for match noise, b + 1 for ballot b)
+     * @return a standard normal value depending only on luck and draw
+     */
+    private static double gaussian(long luck, int draw) {
+        double u1 = (SimulationEngine.trialSeed(luck, 2 * draw) >>> 11) * 0x1.0p-53;
+        double u2 = (SimulationEngine.trialSeed(luck, 2 * draw + 1) >>> 11) * 0x1.0p-53;
+        // 1 - u1 is in (0, 1], so the log is finite
+        return Math.sqrt(-2 * Math.log(1 - u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    /**
+     * Gets a team's strength.
+     * @param t the team
+     * @return t's strength
+     */
+    private double strengthOf(Team t) {
+        int index = t.getIndex();
+        if(index < 0 || index >= strengths.length) {
+            throw new IllegalArgumentException("No strength given for " + t);
+        }
+        return strengths[index];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latent strengths (%d teams, hash %08x), match noise %s, judge noise %s",
+                strengths.length, Arrays.hashCode(strengths), matchNoise, judgeNoise);
+    }
+
+    /**
+     * Converts a judged performance to a score on a ballot.
+     * @param performance the performance, relative to MEAN_SCORE
+     * @return the score, never less than 0
+     */
+    private static int score(double performance) {
+        return Math.max(0, (int) Math.round(MEAN_SCORE + performance));
+    }
+
+}
@@ -0,0 +1,88 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.strategy.*;
+
+/**
+ * The four rounds and final ranking used at nationals, with round 1 drawn at
+ * random and every coin flip decided at random.
+ *
+ * The stack can also be extended to any number of rounds, as for a large
+ * Swiss field: after round 2, odd rounds are paired like round 3 (without
+ * side constraints) and even rounds like round 4 (switching sides), so every
+ * team still alternates sides within each pair of rounds.
+ *
+ * @author jacob
+ */
+public class NationalsStrategyStack implements StrategyStack {
+
+    /**
+     * The number of rounds at nationals.
+     */
+    public static final int ROUNDS = 4;
+
+    private final int rounds;
+    private final boolean higherNumberGoesFirst;
+    private final boolean piLeft;
+
+    /**
+     * Creates a new stack of nationals strategies.
+     * @param higherNumberGoesFirst true if the higher-numbered team should get
+     * a better rank while pairing
+     * @param piLeft true if the left column should go pros/plaintiff in round 3
+     */
+    public NationalsStrategyStack(boolean higherNumberGoesFirst, boolean piLeft) {
+        this(ROUNDS, higherNumberGoesFirst, piLeft);
+    }
+
+    /**
+     * Creates a new stack of nationals strategies with the given number of
+     * rounds.
+     * @param rounds the number of rounds to pair
+     * @param higherNumberGoesFirst true if the higher-numbered team should get
+     * a better rank while pairing
+     * @param piLeft true if the left column should go pros/plaintiff in odd
+     * rounds after the first
+     */
+    public NationalsStrategyStack(int rounds, boolean higherNumberGoesFirst, boolean piLeft) {
+        if(rounds < 1) {
+            throw new IllegalArgumentException("Need at least one round, not " + rounds);
+        }
+        this.rounds = rounds;
+        this.higherNumberGoesFirst = higherNumberGoesFirst;
+        this.piLeft = piLeft;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public PairingStrategy[] createPairingStrategies(RandomSource random) {
+        PairingStrategy[] strategies = new PairingStrategy[rounds];
+        strategies[0] = new Round1PairingStrategy(random);
+        for(int r = 1; r < rounds; r++) {
+            if(r == 1) {
+                strategies[r] = new Round2PairingStrategy(higherNumberGoesFirst);
+            } else if(r % 2 == 0) {
+                // rounds 3, 5, ...
+                strategies[r] = new Round3PairingStrategy(higherNumberGoesFirst, piLeft);
+            } else {
+                // rounds 4, 6, ...
+                strategies[r] = new Round4NationalsPairingStrategy(higherNumberGoesFirst);
+            }
+        }
+        return strategies;
+    }
+
+    public RankingStrategy createRankingStrategy(RandomSource random) {
+        return new DefaultRankingStrategy(new RandomFlipStrategy(random));
+    }
+
+    @Override
+    public String toString() {
+        return "nationals, " + rounds + " rounds, "
+                + (higherNumberGoesFirst ? "higher" : "lower") + " numbers first, "
+                + (piLeft ? "pi left" : "pi right");
+    }
+
+}
@@ -0,0 +1,221 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.strategy.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Accumulates the pairing metrics of every round across any number of
+ * trials, in constant memory, to show where pairing time goes: how long each
+ * round took to sort and to resolve, and how many rows, restarts, candidates
+ * and swaps resolution needed.
+ *
+ * @author jacob
+ */
+public class PairingProfile implements TrialAccumulator<PairingProfile> {
+
+    private static final long serialVersionUID = 1L;
+
+    private long trials;
+    // one per round, added as rounds are seen
+    private final ArrayList<RoundProfile> rounds;
+
+    /**
+     * Creates a new, empty profile.
+     */
+    public PairingProfile() {
+        trials = 0;
+        rounds = new ArrayList<RoundProfile>();
+    }
+
+    public PairingProfile newEmpty() {
+        return new PairingProfile();
+    }
+
+    public void add(Trial trial, double[] strengths) {
+        trials++;
+        List<PairingResult> pairings = trial.getPairings();
+        for(int r = 0; r < pairings.size(); r++) {
+            roundProfile(r).add(pairings.get(r).getMetrics());
+        }
+    }
+
+    public void merge(PairingProfile other) {
+        trials += other.trials;
+        for(int r = 0; r < other.rounds.size(); r++) {
+            roundProfile(r).merge(other.rounds.get(r));
+        }
+    }
+
+    /**
+     * Gets the profile of a round, creating it if this is the first time the
+     * round has been seen.
+     * @param round the index of the round
+     * @return the round's profile
+     */
+    private RoundProfile roundProfile(int round) {
+        while(rounds.size() <= round) {
+            rounds.add(new RoundProfile());
+        }
+        return rounds.get(round);
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    /**
+     * Gets the number of rounds seen in any trial.
+     * @return the number of rounds profiled
+     */
+    public int getNumRounds() {
+        return rounds.size();
+    }
+
+    /**
+     * Gets the time taken to pair a round, from start to finish.
+     * @param round the index of the round
+     * @return the statistic in microseconds over all trials
+     */
+    public RunningStatistic getTotalMicros(int round) {
+        return rounds.get(round).totalMicros;
+    }
+
+    /**
+     * Gets the time spent sorting a round's card stacks.
+     * @param round the index of the round
+     * @return the statistic in microseconds over all trials
+     */
+    public RunningStatistic getSortMicros(int round) {
+        return rounds.get(round).sortMicros;
+    }
+
+    /**
+     * Gets the time spent resolving a round's impermissibles.
+     * @param round the index of the round
+     * @return the statistic in microseconds over all trials
+     */
+    public RunningStatistic getResolveMicros(int round) {
+        return rounds.get(round).resolveMicros;
+    }
+
+    /**
+     * Gets the number of rows checked while resolving a round.
+     * @param round the index of the round
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getRowsChecked(int round) {
+        return rounds.get(round).rowsChecked;
+    }
+
+    /**
+     * Gets the number of swaps that sent resolution back up the stack.
+     * @param round the index of the round
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getRestarts(int round) {
+        return rounds.get(round).restarts;
+    }
+
+    /**
+     * Gets the number of candidate swaps considered while resolving a round.
+     * @param round the index of the round
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getCandidatesEvaluated(int round) {
+        return rounds.get(round).candidatesEvaluated;
+    }
+
+    /**
+     * Gets the number of swaps made while resolving a round.
+     * @param round the index of the round
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getSwaps(int round) {
+        return rounds.get(round).swaps;
+    }
+
+    /**
+     * Gets the farthest any swap reached while resolving a round.
+     * @param round the index of the round
+     * @return the statistic over all trials
+     */
+    public RunningStatistic getMaxReach(int round) {
+        return rounds.get(round).maxReach;
+    }
+
+    /**
+     * Gets the number of trials in which a round couldn't be paired.
+     * @param round the index of the round
+     * @return the number of unpairable rounds
+     */
+    public long getUnpairable(int round) {
+        return rounds.get(round).unpairable;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("trials: " + trials + "\n");
+        for(int r = 0; r < rounds.size(); r++) {
+            RoundProfile p = rounds.get(r);
+            s.append("round " + (r + 1) + ":\n");
+            s.append("   total us: " + p.totalMicros + "\n");
+            s.append("   sort us: " + p.sortMicros + "\n");
+            s.append("   resolve us: " + p.resolveMicros + "\n");
+            s.append("   rows checked: " + p.rowsChecked + "\n");
+            s.append("   restarts: " + p.restarts + "\n");
+            s.append("   candidates: " + p.candidatesEvaluated + "\n");
+            s.append("   swaps: " + p.swaps + "\n");
+            s.append("   max reach: " + p.maxReach + "\n");
+            s.append("   unpairable: " + p.unpairable + "\n");
+        }
+        return s.toString();
+    }
+
+    /**
+     * The metrics of one round, over every trial.
+     */
+    private static class RoundProfile implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        final RunningStatistic totalMicros = new RunningStatistic();
+        final RunningStatistic sortMicros = new RunningStatistic();
+        final RunningStatistic resolveMicros = new RunningStatistic();
+        final RunningStatistic rowsChecked = new RunningStatistic();
+        final RunningStatistic restarts = new RunningStatistic();
+        final RunningStatistic candidatesEvaluated = new RunningStatistic();
+        final RunningStatistic swaps = new RunningStatistic();
+        final RunningStatistic maxReach = new RunningStatistic();
+        long unpairable;
+
+        void add(PairingMetrics metrics) {
+            totalMicros.add(metrics.getTotalNanos() / 1e3);
+            sortMicros.add(metrics.getSortNanos() / 1e3);
+            resolveMicros.add(metrics.getResolveNanos() / 1e3);
+            rowsChecked.add(metrics.getRowsChecked());
+            restarts.add(metrics.getRestarts());
+            candidatesEvaluated.add(metrics.getCandidatesEvaluated());
+            swaps.add(metrics.getSwaps());
+            maxReach.add(metrics.getMaxReach());
+            if(metrics.isUnpairable()) {
+                unpairable++;
+            }
+        }
+
+        void merge(RoundProfile other) {
+            totalMicros.merge(other.totalMicros);
+            sortMicros.merge(other.sortMicros);
+            resolveMicros.merge(other.resolveMicros);
+            rowsChecked.merge(other.rowsChecked);
+            restarts.merge(other.restarts);
+            candidatesEvaluated.merge(other.candidatesEvaluated);
+            swaps.merge(other.swaps);
+            maxReach.merge(other.maxReach);
+            unpairable += other.unpairable;
+        }
+
+    }
+
+}
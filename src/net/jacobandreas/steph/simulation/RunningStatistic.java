@@ -0,0 +1,144 @@
+package net.jacobandreas.steph.simulation;
+
+import java.io.*;
+
+/**
+ * Keeps the count, mean and variance of a stream of values in constant space,
+ * using Welford's update (which, unlike summing squares, doesn't lose
+ * precision over billions of values). Statistics gathered on different
+ * threads can be merged, giving the same result as if every value had been
+ * added to one of them.
+ *
+ * Not thread-safe: give each thread its own and merge them at the end.
+ * Statistics from other processes can be serialized and merged in the same
+ * way.
+ *
+ * A statistic of 0/1 outcomes (a proportion) should be created as one: its
+ * confidence interval is then Wilson's score interval rather than the normal
+ * one, which collapses to nothing while a rare event has not yet happened.
+ *
+ * @author jacob
+ */
+public class RunningStatistic implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of standard errors either side of the mean that give a 95%
+     * confidence interval.
+     */
+    public static final double Z_95 = 1.959964;
+
+    private final boolean proportion;
+
+    private long count;
+    private double mean;
+    // the sum of squared differences from the mean
+    private double m2;
+
+    /**
+     * Creates a new, empty statistic.
+     */
+    public RunningStatistic() {
+        this(false);
+    }
+
+    /**
+     * Creates a new, empty statistic.
+     * @param proportion true if every value will be 0 or 1
+     */
+    public RunningStatistic(boolean proportion) {
+        this.proportion = proportion;
+        count = 0;
+        mean = 0;
+        m2 = 0;
+    }
+
+    /**
+     * Adds a value.
+     * @param x the value to add
+     */
+    public void add(double x) {
+        count++;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    /**
+     * Adds every value seen by another statistic to this one (Chan et al.'s
+     * pairwise update).
+     * @param other the statistic to merge in; it is not changed
+     */
+    public void merge(RunningStatistic other) {
+        if(other.count == 0) {
+            return;
+        }
+        if(count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isProportion() {
+        return proportion;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Gets the sample variance of the values.
+     * @return the variance, or 0 if there are fewer than two values
+     */
+    public double getVariance() {
+        return count < 2 ? 0 : m2 / (count - 1);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the standard error of the mean.
+     * @return the estimated standard deviation of the mean
+     */
+    public double getStandardError() {
+        return count == 0 ? 0 : Math.sqrt(getVariance() / count);
+    }
+
+    /**
+     * Gets the half-width of a 95% confidence interval for the mean. For a
+     * proportion, Wilson's interval isn't centred on the mean, so this is the
+     * distance from the mean to the further end of it; with no successes in n
+     * trials that is about 3.84 / n, not 0.
+     * @return the distance from the mean to either end of the interval
+     */
+    public double getHalfWidth() {
+        if(!proportion || count == 0) {
+            return Z_95 * getStandardError();
+        }
+        double z2n = Z_95 * Z_95 / count;
+        double centre = (mean + z2n / 2) / (1 + z2n);
+        double margin = Z_95 / (1 + z2n) * Math.sqrt(mean * (1 - mean) / count + z2n / (4 * count));
+        return Math.max(centre + margin - mean, mean - (centre - margin));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.4f +/- %.4f", mean, getHalfWidth());
+    }
+
+}
@@ -0,0 +1,326 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.exception.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Plays trials until every chosen statistic is known to a requested
+ * precision, rather than for a fixed number of trials. After each chunk of
+ * trials the campaign checks the 95% confidence interval of every target, and
+ * uses the widest one to estimate how many more trials are needed, so it
+ * stops shortly after the last target is met (or at the maximum number of
+ * trials, whichever comes first). Proportions (such as the unpairable rate)
+ * use Wilson's interval, so a rare event that hasn't happened yet still needs
+ * enough trials to bound its rate below the target.
+ *
+ * If given a checkpoint file, the campaign saves its accumulator there after
+ * every chunk, and picks up where it left off when run again: a campaign can
+ * be interrupted, or extended later with tighter targets or a higher
+ * maximum, without replaying any trial. Since each trial's seed depends only
+ * on its index, the trials played are the same however the campaign was
+ * split up. A checkpoint also records the engine's strategy stack and ballot
+ * model (see describe), and won't be resumed with different ones.
+ *
+ * @param <A> the type of accumulator
+ * @author jacob
+ */
+public class SimulationCampaign<A extends TrialAccumulator<A>> {
+
+    /**
+     * The number of trials played before the targets are first checked,
+     * unless otherwise set. (Too few, and the estimated spread of a statistic
+     * can't be trusted.)
+     */
+    public static final long DEFAULT_MIN_TRIALS = 1000;
+    /**
+     * The most trials a campaign will play, unless otherwise set.
+     */
+    public static final long DEFAULT_MAX_TRIALS = 100000000;
+
+    private final SimulationEngine engine;
+    private final A accumulator;
+    private final double[] strengths;
+
+    private final ArrayList<StatisticSelector<A>> targets;
+    private final ArrayList<Double> halfWidths;
+
+    private long minTrials;
+    private long maxTrials;
+    private File checkpointFile;
+
+    // the number of trials added to the accumulator so far
+    private long trials;
+
+    /**
+     * Creates a new campaign with no targets.
+     * @param engine the engine to play the trials with
+     * @param accumulator an empty accumulator, which the trials are added to
+     * @param strengths the teams' true strengths, indexed by team index
+     */
+    public SimulationCampaign(SimulationEngine engine, A accumulator, double[] strengths) {
+        this.engine = engine;
+        this.accumulator = accumulator;
+        this.strengths = strengths.clone();
+        targets = new ArrayList<StatisticSelector<A>>();
+        halfWidths = new ArrayList<Double>();
+        minTrials = DEFAULT_MIN_TRIALS;
+        maxTrials = DEFAULT_MAX_TRIALS;
+        checkpointFile = null;
+        trials = 0;
+    }
+
+    /**
+     * Adds a target: the campaign won't stop (before the maximum number of
+     * trials) until the statistic's 95% confidence interval is no wider than
+     * the given half-width either side of its mean.
+     * @param statistic the statistic to watch
+     * @param halfWidth the precision required
+     */
+    public void addTarget(StatisticSelector<A> statistic, double halfWidth) {
+        if(halfWidth <= 0) {
+            throw new IllegalArgumentException("Need a positive precision, not " + halfWidth);
+        }
+        targets.add(statistic);
+        halfWidths.add(halfWidth);
+    }
+
+    public long getMinTrials() {
+        return minTrials;
+    }
+
+    /**
+     * Sets the number of trials to play before checking the targets.
+     * @param minTrials the minimum number of trials
+     */
+    public void setMinTrials(long minTrials) {
+        if(minTrials < 2) {
+            throw new IllegalArgumentException("Need at least two trials, not " + minTrials);
+        }
+        this.minTrials = minTrials;
+    }
+
+    public long getMaxTrials() {
+        return maxTrials;
+    }
+
+    /**
+     * Sets the number of trials after which to give up on the targets.
+     * @param maxTrials the maximum number of trials
+     */
+    public void setMaxTrials(long maxTrials) {
+        if(maxTrials < 1) {
+            throw new IllegalArgumentException("Need at least one trial, not " + maxTrials);
+        }
+        this.maxTrials = maxTrials;
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Sets the file to save progress to after every chunk of trials, and to
+     * resume from when the campaign is run. Resuming needs the same seed,
+     * teams, strengths, stack and ballot model, so the stack and model should
+     * describe their settings in toString.
+     * @param checkpointFile the checkpoint file, or null not to checkpoint
+     */
+    public void setCheckpointFile(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    /**
+     * Gets the accumulator, holding every trial played so far (including any
+     * from a checkpoint).
+     * @return the accumulator
+     */
+    public A getAccumulator() {
+        return accumulator;
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    /**
+     * Finds out whether every target has been met.
+     * @return true if every target's confidence interval is narrow enough
+     */
+    public boolean isPrecise() {
+        return trials >= minTrials && trialsNeeded() <= trials;
+    }
+
+    /**
+     * Plays trials until every target is met or the maximum number of trials
+     * has been played, first resuming from the checkpoint file if there is
+     * one.
+     * @return a summary of the trials played by this call
+     * @throws TournamentStateException if any trial could not be played
+     * @throws IOException if the checkpoint could not be read or written
+     */
+    public SimulationReport run() throws TournamentStateException, IOException {
+        if(checkpointFile != null && checkpointFile.exists() && trials == 0) {
+            restore();
+        }
+
+        long start = System.nanoTime();
+        long played = 0;
+        while(trials < maxTrials && !isPrecise()) {
+            long chunk = Math.min(nextChunk(), maxTrials - trials);
+            engine.run(trials, chunk, accumulator, strengths);
+            trials += chunk;
+            played += chunk;
+            if(checkpointFile != null) {
+                save();
+            }
+        }
+        return new SimulationReport(played, System.nanoTime() - start, engine.getParallelism());
+    }
+
+    /**
+     * Works out how many trials to play before checking the targets again.
+     * @return the size of the next chunk
+     */
+    private long nextChunk() {
+        if(trials < minTrials) {
+            return minTrials - trials;
+        }
+        // the half-width shrinks with the square root of the number of
+        // trials, but the estimate is noisy, so never more than double
+        return Math.max(1, Math.min(trialsNeeded(), 2 * trials) - trials);
+    }
+
+    /**
+     * Estimates how many trials in all it will take to meet every target.
+     * @return the estimated number of trials
+     */
+    private long trialsNeeded() {
+        long needed = 0;
+        for(int i = 0; i < targets.size(); i++) {
+            RunningStatistic statistic = targets.get(i).select(accumulator);
+            // for a proportion with no successes the half-width shrinks like
+            // 1 / n, so this overestimates, but chunks never more than double
+            double ratio = statistic.getHalfWidth() / halfWidths.get(i);
+            needed = Math.max(needed, (long) Math.ceil(statistic.getCount() * ratio * ratio));
+        }
+        return needed;
+    }
+
+    /**
+     * Saves the campaign's progress, replacing the checkpoint file only once
+     * the new one has been written completely.
+     * @throws IOException if the checkpoint could not be written
+     */
+    private void save() throws IOException {
+        File temp = new File(checkpointFile.getPath() + ".tmp");
+        ObjectOutputStream out = new ObjectOutputStream(
+                new BufferedOutputStream(new FileOutputStream(temp)));
+        try {
+            out.writeObject(new Checkpoint(engine.getSeed(), engine.getNumTeams(), strengths,
+                    describe(engine.getStack()), describe(engine.getBallotModel()), trials, accumulator));
+        } finally {
+            out.close();
+        }
+        if(!temp.renameTo(checkpointFile)) {
+            // some platforms won't rename over an existing file
+            if(!checkpointFile.delete() || !temp.renameTo(checkpointFile)) {
+                throw new IOException("Couldn't replace checkpoint " + checkpointFile);
+            }
+        }
+    }
+
+    /**
+     * Resumes from the checkpoint file, which must have been saved by a
+     * campaign with the same seed, number of teams, strengths, strategy stack
+     * and ballot model.
+     * @throws IOException if the checkpoint could not be read, or doesn't
+     * match this campaign
+     */
+    @SuppressWarnings("unchecked")
+    private void restore() throws IOException {
+        ObjectInputStream in = new ObjectInputStream(
+                new BufferedInputStream(new FileInputStream(checkpointFile)));
+        Checkpoint checkpoint;
+        try {
+            checkpoint = (Checkpoint) in.readObject();
+        } catch(ClassNotFoundException e) {
+            throw new IOException("Couldn't read checkpoint " + checkpointFile + ": " + e);
+        } finally {
+            in.close();
+        }
+        if(checkpoint.seed != engine.getSeed() || checkpoint.numTeams != engine.getNumTeams()
+                || !Arrays.equals(checkpoint.strengths, strengths)) {
+            throw new IOException("Checkpoint " + checkpointFile + " is from a different campaign");
+        }
+        if(!checkpoint.stack.equals(describe(engine.getStack()))) {
+            throw new IOException("Checkpoint " + checkpointFile + " was played with a different stack ("
+                    + checkpoint.stack + ")");
+        }
+        if(!checkpoint.ballotModel.equals(describe(engine.getBallotModel()))) {
+            throw new IOException("Checkpoint " + checkpointFile + " was played with a different ballot model ("
+                    + checkpoint.ballotModel + ")");
+        }
+        // an accumulator of the wrong type (or settings) fails to merge
+        try {
+            accumulator.merge((A) checkpoint.accumulator);
+        } catch(ClassCastException e) {
+            throw new IOException("Checkpoint " + checkpointFile + " holds a different accumulator");
+        } catch(IllegalArgumentException e) {
+            throw new IOException("Checkpoint " + checkpointFile + " holds a different accumulator");
+        }
+        trials = checkpoint.trials;
+    }
+
+    /**
+     * Describes a strategy stack or ballot model for a checkpoint, by its
+     * class and its toString. An object that doesn't override toString is
+     * described by its identity, so a campaign using it can't be resumed.
+     * @param o the stack or model
+     * @return the description
+     */
+    private static String describe(Object o) {
+        return o.getClass().getName() + ": " + o;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(trials + " trials, " + (isPrecise() ? "all targets met" : "targets not met") + "\n");
+        for(int i = 0; i < targets.size(); i++) {
+            RunningStatistic statistic = targets.get(i).select(accumulator);
+            s.append("   " + targets.get(i).getName() + ": " + statistic
+                    + String.format(" (target +/- %.4f)", halfWidths.get(i)) + "\n");
+        }
+        return s.toString();
+    }
+
+    /**
+     * Everything needed to resume a campaign.
+     */
+    private static class Checkpoint implements Serializable {
+
+        private static final long serialVersionUID = 2L;
+
+        final long seed;
+        final int numTeams;
+        final double[] strengths;
+        final String stack;
+        final String ballotModel;
+        final long trials;
+        final TrialAccumulator<?> accumulator;
+
+        Checkpoint(long seed, int numTeams, double[] strengths, String stack, String ballotModel,
+                long trials, TrialAccumulator<?> accumulator) {
+            this.seed = seed;
+            this.numTeams = numTeams;
+            this.strengths = strengths;
+            this.stack = stack;
+            this.ballotModel = ballotModel;
+            this.trials = trials;
+            this.accumulator = accumulator;
+        }
+
+    }
+
+}
@@ -0,0 +1,329 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Plays large numbers of simulated tournaments in parallel, pairing and
+ * ranking each one with a fresh set of strategies from a StrategyStack.
+ *
+ * Trials are spread across a fork/join pool, so idle workers steal batches
+ * from busy ones. Every trial has its own seed, derived only from the
+ * simulation's seed and the trial's index, regardless of which thread plays
+ * it. Its pairings, coin flips and ballots each draw from a separate source
+ * split off from that seed, so no randomness is shared between threads and
+ * any trial can be replayed exactly with playTrial.
+ *
+ * @author jacob
+ */
+public class SimulationEngine {
+
+    /**
+     * The number of teams in each simulated tournament, unless otherwise set.
+     */
+    public static final int DEFAULT_TEAMS = 24;
+
+    /**
+     * Batches of at most this many trials are played on a single thread
+     * rather than being split further.
+     */
+    static final int BATCH_SIZE = 16;
+
+    private final StrategyStack stack;
+    private BallotModel ballotModel;
+
+    private int numTeams;
+    private long seed;
+    private int parallelism;
+
+    /**
+     * Creates a new engine which pairs one round with each of the stack's
+     * pairing strategies, in order, and then ranks the teams.
+     * @param stack builds the strategies for each trial
+     */
+    public SimulationEngine(StrategyStack stack) {
+        this.stack = stack;
+        ballotModel = new UniformBallotModel();
+        numTeams = DEFAULT_TEAMS;
+        seed = System.nanoTime();
+        parallelism = Runtime.getRuntime().availableProcessors();
+    }
+
+    public StrategyStack getStack() {
+        return stack;
+    }
+
+    public int getNumTeams() {
+        return numTeams;
+    }
+
+    /**
+     * Sets the number of teams in each simulated tournament.
+     * @param numTeams an even number of teams
+     */
+    public void setNumTeams(int numTeams) {
+        if(numTeams < 2 || numTeams % 2 != 0) {
+            throw new IllegalArgumentException("Need a positive, even number of teams, not " + numTeams);
+        }
+        this.numTeams = numTeams;
+    }
+
+    public BallotModel getBallotModel() {
+        return ballotModel;
+    }
+
+    /**
+     * Sets the model used to score ballots (by default, a UniformBallotModel).
+     * @param ballotModel the ballot model
+     */
+    public void setBallotModel(BallotModel ballotModel) {
+        this.ballotModel = ballotModel;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed every trial's seed is derived from.
+     * @param seed the simulation seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of worker threads (by default, one per core).
+     * @param parallelism the number of threads to use
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Need at least one thread, not " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Gets the seed for a single trial.
+     * @param seed the simulation seed
+     * @param index the index of the trial
+     * @return the trial's seed
+     */
+    public static long trialSeed(long seed, long index) {
+        // SplitMix64 finalizer, so that neighbouring trials get unrelated seeds
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays the given number of trials, reporting each one to the observer as
+     * it completes (from whichever thread played it).
+     * @param trials the number of tournaments to simulate
+     * @param observer notified of every completed trial
+     * @return a summary of the run
+     * @throws TournamentStateException if any trial could not be played
+     */
+    public SimulationReport run(long trials, TrialObserver observer) throws TournamentStateException {
+        long start = System.nanoTime();
+        invoke(parallelism, new TrialBatch(0, trials, observer));
+        return new SimulationReport(trials, System.nanoTime() - start, parallelism);
+    }
+
+    /**
+     * Plays the given number of trials, adding each one to the accumulator.
+     * Every batch of trials fills an empty accumulator of its own, and these
+     * are merged into the given one at the end, so no trial is kept once it
+     * has been added.
+     * @param trials the number of tournaments to simulate
+     * @param accumulator the accumulator to add the trials to
+     * @param strengths the teams' true strengths, indexed by team index
+     * @return a summary of the run
+     * @throws TournamentStateException if any trial could not be played
+     */
+    public <A extends TrialAccumulator<A>> SimulationReport run(long trials, A accumulator,
+            double[] strengths) throws TournamentStateException {
+        return run(0, trials, accumulator, strengths);
+    }
+
+    /**
+     * Plays the given number of trials, starting from the given trial index,
+     * and adds each one to the accumulator. Since every trial's seed depends
+     * only on its index, running trials 0 to n and then n to m gives the same
+     * trials as running 0 to m at once.
+     * @param firstTrial the index of the first trial to play
+     * @param trials the number of tournaments to simulate
+     * @param accumulator the accumulator to add the trials to
+     * @param strengths the teams' true strengths, indexed by team index
+     * @return a summary of the run
+     * @throws TournamentStateException if any trial could not be played
+     */
+    public <A extends TrialAccumulator<A>> SimulationReport run(long firstTrial, long trials,
+            A accumulator, double[] strengths) throws TournamentStateException {
+        long start = System.nanoTime();
+        accumulator.merge(invoke(parallelism, new AccumulatingBatch<A>(
+                firstTrial, firstTrial + trials, accumulator, strengths.clone())));
+        return new SimulationReport(trials, System.nanoTime() - start, parallelism);
+    }
+
+    /**
+     * Runs a task in a new fork/join pool, passing on any
+     * TournamentStateException thrown by a trial.
+     * @param parallelism the number of worker threads
+     * @param task the task to run
+     * @return the task's result
+     * @throws TournamentStateException if any trial could not be played
+     */
+    static <T> T invoke(int parallelism, ForkJoinTask<T> task) throws TournamentStateException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(task);
+        } catch(RuntimeException e) {
+            // the pool may have rethrown a copy, so look for the original cause
+            for(Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if(cause instanceof TournamentStateException) {
+                    throw (TournamentStateException) cause;
+                }
+            }
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays a single trial on the calling thread.
+     * @param index the index of the trial to play
+     * @return the completed trial
+     * @throws TournamentStateException if the trial could not be played
+     */
+    public Trial playTrial(long index) throws TournamentStateException {
+        return playTrial(index, trialSeed(seed, index), stack, ballotModel, numTeams);
+    }
+
+    /**
+     * Plays a single tournament on the calling thread. Everything random
+     * about it comes from the given seed: playing the same seed with two
+     * different stacks uses the same random numbers for both.
+     * @param index the index of the trial
+     * @param trialSeed the trial's seed
+     * @param stack builds the strategies for the trial
+     * @param ballotModel scores the trial's ballots
+     * @param numTeams the number of teams in the tournament
+     * @return the completed trial
+     * @throws TournamentStateException if the trial could not be played
+     */
+    static Trial playTrial(long index, long trialSeed, StrategyStack stack,
+            BallotModel ballotModel, int numTeams) throws TournamentStateException {
+        RandomSource random = new SplittableRandomSource(trialSeed);
+        PairingStrategy[] strategies = stack.createPairingStrategies(random.split());
+        RankingStrategy ranker = stack.createRankingStrategy(random.split());
+        RandomSource ballotRandom = random.split();
+
+        Tournament tournament = new Tournament();
+        for(int i = 0; i < numTeams; i++) {
+            tournament.addTeam(new Team("Team number " + i, i));
+        }
+
+        List<PairingResult> pairings = new ArrayList<PairingResult>(strategies.length);
+        for(PairingStrategy strategy : strategies) {
+            pairings.add(tournament.addRoundWithPairersList(strategy));
+            tournament.getCurrentRound().setPairingLocked(true);
+            ballotModel.addBallots(tournament.getCurrentRound(), ballotRandom);
+            tournament.getCurrentRound().play();
+        }
+
+        return new Trial(index, trialSeed, tournament, ranker.rank(tournament.getTeams()), pairings);
+    }
+
+    /**
+     * A contiguous range of trials, split in half until it is small enough to
+     * play on one thread.
+     */
+    private class TrialBatch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from, to;
+        private final TrialObserver observer;
+
+        TrialBatch(long from, long to, TrialObserver observer) {
+            this.from = from;
+            this.to = to;
+            this.observer = observer;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= BATCH_SIZE) {
+                for(long i = from; i < to; i++) {
+                    try {
+                        observer.trialCompleted(playTrial(i));
+                    } catch(TournamentStateException e) {
+                        throw new RuntimeException("Trial " + i + " failed", e);
+                    }
+                }
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            invokeAll(new TrialBatch(from, mid, observer), new TrialBatch(mid, to, observer));
+        }
+
+    }
+
+    /**
+     * A contiguous range of trials, split in half until it is small enough to
+     * play on one thread; the halves' accumulators are merged on the way back
+     * up.
+     */
+    private class AccumulatingBatch<A extends TrialAccumulator<A>> extends RecursiveTask<A> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from, to;
+        // only used to create empty accumulators
+        private final A template;
+        private final double[] strengths;
+
+        AccumulatingBatch(long from, long to, A template, double[] strengths) {
+            this.from = from;
+            this.to = to;
+            this.template = template;
+            this.strengths = strengths;
+        }
+
+        @Override
+        protected A compute() {
+            if(to - from <= BATCH_SIZE) {
+                A accumulator = template.newEmpty();
+                for(long i = from; i < to; i++) {
+                    try {
+                        accumulator.add(playTrial(i), strengths);
+                    } catch(TournamentStateException e) {
+                        throw new RuntimeException("Trial " + i + " failed", e);
+                    }
+                }
+                return accumulator;
+            }
+            long mid = (from + to) >>> 1;
+            AccumulatingBatch<A> left = new AccumulatingBatch<A>(from, mid, template, strengths);
+            AccumulatingBatch<A> right = new AccumulatingBatch<A>(mid, to, template, strengths);
+            left.fork();
+            A rightAccumulator = right.compute();
+            A accumulator = left.join();
+            accumulator.merge(rightAccumulator);
+            return accumulator;
+        }
+
+    }
+
+}
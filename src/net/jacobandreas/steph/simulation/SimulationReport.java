@@ -0,0 +1,55 @@
+package net.jacobandreas.steph.simulation;
+
+/**
+ * Summarizes a completed simulation run.
+ *
+ * @author jacob
+ */
+public class SimulationReport {
+
+    private final long trials;
+    private final long elapsedNanos;
+    private final int parallelism;
+
+    /**
+     * Creates a new report.
+     * @param trials the number of trials played
+     * @param elapsedNanos the wall-clock time the run took
+     * @param parallelism the number of worker threads used
+     */
+    public SimulationReport(long trials, long elapsedNanos, int parallelism) {
+        this.trials = trials;
+        this.elapsedNanos = elapsedNanos;
+        this.parallelism = parallelism;
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Gets the throughput of the run.
+     * @return trials played per second of wall-clock time
+     */
+    public double getTrialsPerSecond() {
+        if(elapsedNanos == 0) {
+            return 0;
+        }
+        return trials / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return trials + " trials in " + String.format("%.3f", elapsedNanos / 1e9) + "s on "
+                + parallelism + " threads (" + String.format("%.1f", getTrialsPerSecond()) + " trials/s)";
+    }
+
+}
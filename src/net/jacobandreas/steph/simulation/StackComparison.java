@@ -0,0 +1,265 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.random.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares several strategy stacks using common random numbers. In every
+ * trial, each stack plays a tournament with the same latent team strengths
+ * and the same random streams for round 1 draws and coin flips, and each
+ * team has the same luck on its ballots in every round whoever it meets (see
+ * LatentStrengthBallotModel), so whatever differs between the results is down
+ * to the strategies rather than luck. Each stack's metrics are then compared with the first (baseline)
+ * stack's, trial by trial.
+ *
+ * Because the stacks' results are strongly correlated, the paired differences
+ * vary far less than two independent runs would, so many fewer trials are
+ * needed to tell the stacks apart; the report gives the factor saved for each
+ * metric.
+ *
+ * Trials are played in parallel, and each batch of trials keeps its own
+ * statistics, which are merged at the end.
+ *
+ * @author jacob
+ */
+public class StackComparison {
+
+    /**
+     * The standard deviation of the teams' strengths, unless otherwise set.
+     */
+    public static final double DEFAULT_STRENGTH_SPREAD = 4;
+    /**
+     * How much a team's performance varies from match to match, unless
+     * otherwise set.
+     */
+    public static final double DEFAULT_MATCH_NOISE = 4;
+    /**
+     * How much judges disagree about a performance, unless otherwise set.
+     */
+    public static final double DEFAULT_JUDGE_NOISE = 3;
+
+    private final TrialMetric[] metrics;
+    private final ArrayList<String> names;
+    private final ArrayList<StrategyStack> stacks;
+
+    private int numTeams;
+    private long seed;
+    private int parallelism;
+    private double strengthSpread;
+    private double matchNoise;
+    private double judgeNoise;
+
+    /**
+     * Creates a new comparison with no stacks, measuring the given metrics.
+     * @param metrics the metrics to compare the stacks on
+     */
+    public StackComparison(TrialMetric... metrics) {
+        this.metrics = metrics.clone();
+        names = new ArrayList<String>();
+        stacks = new ArrayList<StrategyStack>();
+        numTeams = SimulationEngine.DEFAULT_TEAMS;
+        seed = System.nanoTime();
+        parallelism = Runtime.getRuntime().availableProcessors();
+        strengthSpread = DEFAULT_STRENGTH_SPREAD;
+        matchNoise = DEFAULT_MATCH_NOISE;
+        judgeNoise = DEFAULT_JUDGE_NOISE;
+    }
+
+    /**
+     * Adds a stack to the comparison. The first stack added is the baseline
+     * the others are compared against.
+     * @param name a short name for the stack, for reports
+     * @param stack the stack
+     */
+    public void addStack(String name, StrategyStack stack) {
+        names.add(name);
+        stacks.add(stack);
+    }
+
+    public int getNumTeams() {
+        return numTeams;
+    }
+
+    /**
+     * Sets the number of teams in each simulated tournament.
+     * @param numTeams an even number of teams
+     */
+    public void setNumTeams(int numTeams) {
+        if(numTeams < 2 || numTeams % 2 != 0) {
+            throw new IllegalArgumentException("Need a positive, even number of teams, not " + numTeams);
+        }
+        this.numTeams = numTeams;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of worker threads (by default, one per core).
+     * @param parallelism the number of threads to use
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism < 1) {
+            throw new IllegalArgumentException("Need at least one thread, not " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets how the teams' strengths and ballots are drawn. In each trial the
+     * strengths are drawn afresh from a normal distribution; see
+     * LatentStrengthBallotModel for the noise.
+     * @param strengthSpread the standard deviation of the teams' strengths
+     * @param matchNoise the standard deviation of a team's performance from
+     * match to match
+     * @param judgeNoise the standard deviation of a judge's score for a given
+     * performance
+     */
+    public void setNoise(double strengthSpread, double matchNoise, double judgeNoise) {
+        if(strengthSpread < 0 || matchNoise < 0 || judgeNoise < 0) {
+            throw new IllegalArgumentException("Spreads can't be negative");
+        }
+        this.strengthSpread = strengthSpread;
+        this.matchNoise = matchNoise;
+        this.judgeNoise = judgeNoise;
+    }
+
+    /**
+     * Plays the given number of trials with every stack.
+     * @param trials the number of trials
+     * @return the comparison
+     * @throws TournamentStateException if any trial could not be played
+     */
+    public ComparisonReport run(long trials) throws TournamentStateException {
+        if(stacks.isEmpty()) {
+            throw new IllegalStateException("No stacks to compare");
+        }
+        long start = System.nanoTime();
+        Tally tally = SimulationEngine.invoke(parallelism, new ComparisonBatch(0, trials));
+        return new ComparisonReport(names, metrics, tally, System.nanoTime() - start);
+    }
+
+    /**
+     * Plays one trial with every stack, adding the results to the tally.
+     * @param index the index of the trial
+     * @param tally the statistics to add to
+     * @throws TournamentStateException if the trial could not be played
+     */
+    private void playTrial(long index, Tally tally) throws TournamentStateException {
+        long trialSeed = SimulationEngine.trialSeed(seed, index);
+
+        // strengths come from a stream of their own, so they don't disturb
+        // the tournaments' streams
+        RandomSource strengthRandom = new SplittableRandomSource(SimulationEngine.trialSeed(trialSeed, 0));
+        double[] strengths = new double[numTeams];
+        for(int i = 0; i < numTeams; i++) {
+            strengths[i] = strengthSpread * strengthRandom.nextGaussian();
+        }
+        BallotModel ballotModel = new LatentStrengthBallotModel(strengths, matchNoise, judgeNoise);
+
+        double[][] values = new double[stacks.size()][metrics.length];
+        for(int s = 0; s < stacks.size(); s++) {
+            Trial trial = SimulationEngine.playTrial(index, trialSeed, stacks.get(s), ballotModel, numTeams);
+            for(int m = 0; m < metrics.length; m++) {
+                values[s][m] = metrics[m].measure(trial, strengths);
+            }
+        }
+        tally.add(values);
+    }
+
+    /**
+     * Each stack's metrics, and their differences from the baseline stack's,
+     * over some set of trials.
+     */
+    static class Tally {
+
+        final RunningStatistic[][] values;
+        final RunningStatistic[][] differences;
+        // kept apart from the statistics, since there may be no metrics
+        long trials;
+
+        Tally(int stacks, int metrics) {
+            trials = 0;
+            values = new RunningStatistic[stacks][metrics];
+            differences = new RunningStatistic[stacks][metrics];
+            for(int s = 0; s < stacks; s++) {
+                for(int m = 0; m < metrics; m++) {
+                    values[s][m] = new RunningStatistic();
+                    differences[s][m] = new RunningStatistic();
+                }
+            }
+        }
+
+        void add(double[][] trial) {
+            trials++;
+            for(int s = 0; s < trial.length; s++) {
+                for(int m = 0; m < trial[s].length; m++) {
+                    values[s][m].add(trial[s][m]);
+                    differences[s][m].add(trial[s][m] - trial[0][m]);
+                }
+            }
+        }
+
+        void merge(Tally other) {
+            trials += other.trials;
+            for(int s = 0; s < values.length; s++) {
+                for(int m = 0; m < values[s].length; m++) {
+                    values[s][m].merge(other.values[s][m]);
+                    differences[s][m].merge(other.differences[s][m]);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * A contiguous range of trials, split in half until it is small enough to
+     * play on one thread; the halves' tallies are merged on the way back up.
+     */
+    private class ComparisonBatch extends RecursiveTask<Tally> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long from, to;
+
+        ComparisonBatch(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if(to - from <= SimulationEngine.BATCH_SIZE) {
+                Tally tally = new Tally(stacks.size(), metrics.length);
+                for(long i = from; i < to; i++) {
+                    try {
+                        playTrial(i, tally);
+                    } catch(TournamentStateException e) {
+                        throw new RuntimeException("Trial " + i + " failed", e);
+                    }
+                }
+                return tally;
+            }
+            long mid = (from + to) >>> 1;
+            ComparisonBatch left = new ComparisonBatch(from, mid);
+            ComparisonBatch right = new ComparisonBatch(mid, to);
+            left.fork();
+            Tally tally = right.compute();
+            tally.merge(left.join());
+            return tally;
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package net.jacobandreas.steph.simulation;
+
+/**
+ * Picks out one statistic from an accumulator, e.g. so that a campaign can
+ * watch its confidence interval.
+ *
+ * @param <A> the type of accumulator
+ * @author jacob
+ */
+public interface StatisticSelector<A> {
+
+    /**
+     * Gets a short name for the statistic, for reports.
+     * @return the statistic's name
+     */
+    public String getName();
+
+    /**
+     * Gets the statistic from an accumulator.
+     * @param accumulator the accumulator
+     * @return the statistic
+     */
+    public RunningStatistic select(A accumulator);
+
+}
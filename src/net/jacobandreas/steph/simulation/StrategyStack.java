@@ -0,0 +1,37 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.strategy.*;
+
+/**
+ * Builds the strategies used to pair and rank one simulated tournament.
+ * Strategies which make random draws (round 1 pairings, coin flips) are given
+ * a source split off from the trial's own seed, so each trial has its own
+ * strategies and can be replayed exactly.
+ *
+ * Implementations are called from every worker thread at once, so they must
+ * not keep any state of their own.
+ *
+ * A campaign only resumes from a checkpoint saved with the same stack, which
+ * it recognises by class and toString, so implementations with settings
+ * should describe them in toString.
+ *
+ * @author jacob
+ */
+public interface StrategyStack {
+
+    /**
+     * Creates the pairing strategy for each round, in order.
+     * @param random the source of randomness for the trial's pairings
+     * @return the pairing strategies
+     */
+    public PairingStrategy[] createPairingStrategies(RandomSource random);
+
+    /**
+     * Creates the strategy used to produce final rankings.
+     * @param random the source of randomness for the trial's coin flips
+     * @return the ranking strategy
+     */
+    public RankingStrategy createRankingStrategy(RandomSource random);
+
+}
@@ -0,0 +1,106 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.strategy.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * The outcome of a single simulated tournament.
+ *
+ * @author jacob
+ */
+public class Trial {
+
+    private final long index;
+    private final long seed;
+    private final Tournament tournament;
+    private final List<Team> ranking;
+    private final List<PairingResult> pairings;
+    private final List<List<Swap>> pairersLists;
+    private final boolean unpairable;
+
+    /**
+     * Records the outcome of a simulated tournament, without its pairings.
+     * @param index the number of this trial within its simulation
+     * @param seed the seed this trial was played from
+     * @param tournament the completed tournament
+     * @param ranking the final ranking of the tournament's teams
+     */
+    public Trial(long index, long seed, Tournament tournament, List<Team> ranking) {
+        this(index, seed, tournament, ranking, Collections.<PairingResult>emptyList());
+    }
+
+    /**
+     * Records the outcome of a simulated tournament.
+     * @param index the number of this trial within its simulation
+     * @param seed the seed this trial was played from
+     * @param tournament the completed tournament
+     * @param ranking the final ranking of the tournament's teams
+     * @param pairings the result of pairing each round, in order
+     */
+    public Trial(long index, long seed, Tournament tournament, List<Team> ranking,
+            List<PairingResult> pairings) {
+        this.index = index;
+        this.seed = seed;
+        this.tournament = tournament;
+        this.ranking = Collections.unmodifiableList(ranking);
+        this.pairings = Collections.unmodifiableList(pairings);
+        List<List<Swap>> lists = new ArrayList<List<Swap>>(pairings.size());
+        boolean anyUnpairable = false;
+        for(PairingResult pairing : pairings) {
+            lists.add(pairing.getPairersList());
+            anyUnpairable |= pairing.getMetrics().isUnpairable();
+        }
+        this.pairersLists = Collections.unmodifiableList(lists);
+        this.unpairable = anyUnpairable;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Tournament getTournament() {
+        return tournament;
+    }
+
+    /**
+     * Gets the final ranking of the tournament's teams.
+     * @return the teams, with the winner at index 0
+     */
+    public List<Team> getRanking() {
+        return ranking;
+    }
+
+    /**
+     * Gets the swaps made to resolve impermissibles in each round.
+     * @return a pairer's list for each round (empty for rounds paired by a
+     * strategy that keeps none), or an empty list if none were recorded
+     */
+    public List<List<Swap>> getPairersLists() {
+        return pairersLists;
+    }
+
+    /**
+     * Gets the result of pairing each round, including the metrics recorded
+     * while pairing it.
+     * @return a pairing for each round, or an empty list if none were
+     * recorded
+     */
+    public List<PairingResult> getPairings() {
+        return pairings;
+    }
+
+    /**
+     * Finds out whether a pairing strategy gave up on any of this trial's
+     * rounds, leaving impermissible matches in place.
+     * @return true if any round was unpairable
+     */
+    public boolean isUnpairable() {
+        return unpairable;
+    }
+
+}
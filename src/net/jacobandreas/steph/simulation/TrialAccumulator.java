@@ -0,0 +1,40 @@
+package net.jacobandreas.steph.simulation;
+
+import java.io.*;
+
+/**
+ * Summarizes a stream of trials in a fixed amount of memory, however many
+ * trials are added. Each worker thread adds trials to an accumulator of its
+ * own, and the accumulators are then merged; merging must be associative, so
+ * the result doesn't depend on how the trials were split up. Accumulators are
+ * serializable, so those from separate processes can be merged in the same
+ * way.
+ *
+ * Implementations need not be thread-safe.
+ *
+ * @param <A> the implementing class
+ * @author jacob
+ */
+public interface TrialAccumulator<A extends TrialAccumulator<A>> extends Serializable {
+
+    /**
+     * Adds a completed trial.
+     * @param trial the trial
+     * @param strengths the teams' true strengths, indexed by team index
+     */
+    public void add(Trial trial, double[] strengths);
+
+    /**
+     * Adds everything another accumulator has seen to this one.
+     * @param other the accumulator to merge in; it is not changed
+     */
+    public void merge(A other);
+
+    /**
+     * Creates an accumulator with the same settings as this one but no
+     * trials, for another thread to fill.
+     * @return an empty accumulator
+     */
+    public A newEmpty();
+
+}
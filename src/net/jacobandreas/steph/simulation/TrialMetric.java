@@ -0,0 +1,27 @@
+package net.jacobandreas.steph.simulation;
+
+/**
+ * Measures one aspect of how well a simulated tournament did, given the teams'
+ * true strengths (indexed by each team's index in the tournament).
+ *
+ * Metrics are shared by every worker thread, so they must not keep any state.
+ *
+ * @author jacob
+ */
+public interface TrialMetric {
+
+    /**
+     * Gets a short name for the metric, for reports.
+     * @return the metric's name
+     */
+    public String getName();
+
+    /**
+     * Measures a completed trial.
+     * @param trial the trial
+     * @param strengths each team's true strength
+     * @return the value of the metric for this trial
+     */
+    public double measure(Trial trial, double[] strengths);
+
+}
@@ -0,0 +1,17 @@
+package net.jacobandreas.steph.simulation;
+
+/**
+ * The listener interface for receiving the results of simulated tournaments.
+ * Trials are played in parallel, so implementations must be thread-safe.
+ *
+ * @author jacob
+ */
+public interface TrialObserver {
+
+    /**
+     * Invoked when a simulated tournament has been played and ranked.
+     * @param trial the completed trial
+     */
+    public void trialCompleted(Trial trial);
+
+}
@@ -0,0 +1,44 @@
+package net.jacobandreas.steph.simulation;
+
+import net.jacobandreas.steph.random.*;
+import net.jacobandreas.steph.tournament.*;
+
+/**
+ * Scores every ballot uniformly at random, ignoring how strong the teams are:
+ * the first ballot of each match in the range 100-139 and the second in the
+ * range 200-239 (as in the demo). Useful for checking the pairing rules
+ * themselves, since every team is equally likely to win any ballot.
+ *
+ * @author jacob
+ */
+public class UniformBallotModel extends BaseBallotModel {
+
+    /**
+     * The lowest score on the first ballot of a match; each later ballot's
+     * range is this much higher again.
+     */
+    public static final int BASE_SCORE = 100;
+    /**
+     * The number of different scores possible on each ballot.
+     */
+    public static final int SPREAD = 40;
+
+    public void generateScores(Team[] pis, Team[] deltas, int matches,
+            RandomSource random, int[] piTotals, int[] deltaTotals) {
+        int k = 0;
+        for(int m = 0; m < matches; m++) {
+            for(int b = 0; b < Match.MAX_BALLOTS; b++) {
+                int base = BASE_SCORE * (b + 1);
+                piTotals[k] = base + random.nextInt(SPREAD);
+                deltaTotals[k] = base + random.nextInt(SPREAD);
+                k++;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "uniform scores";
+    }
+
+}
@@ -1,6 +1,9 @@
 package net.jacobandreas.steph.strategy;
 
-import net.jacobandreas.steph.event.PairingEventListener;
+import net.jacobandreas.steph.event.*;
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.jfr.*;
+import net.jacobandreas.steph.random.*;
 import net.jacobandreas.steph.tournament.*;
 import java.util.*;
 
@@ -13,15 +16,21 @@ import java.util.*;
 public abstract class BasePairingStrategy implements PairingStrategy {
 
     /**
-     * A list of registered PairingEventListeners
+     * The registered PairingEventListeners
      */
-    ArrayList<PairingEventListener> pairingEventListeners;
+    private final PairingEventRegistry pairingEvents;
+
+    /**
+     * How impermissibles are resolved (MANUAL_CARDS or WORKLIST)
+     */
+    private int resolutionMode;
 
     /**
      * Sets up the BasePairingStrategy
      */
     protected BasePairingStrategy() {
-        pairingEventListeners = new ArrayList<PairingEventListener>();
+        pairingEvents = new PairingEventRegistry();
+        resolutionMode = WORKLIST;
     }
 
     /**
@@ -29,6 +38,17 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      */
     public static final double TOLERANCE = 0.01;
 
+    /**
+     * Resolve impermissibles exactly as tabulators do with tab cards, going
+     * back to the top of the stack after every swap.
+     */
+    public static final int MANUAL_CARDS = 1;
+    /**
+     * Resolve impermissibles by rechecking only the rows disturbed by each
+     * swap. Produces the same stacks and pairer's list as MANUAL_CARDS.
+     */
+    public static final int WORKLIST = 2;
+
     /**
      * Stub for round-specific comparator for ranking potential swaps according
      * to their desirability
@@ -36,12 +56,96 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      */
     public abstract Comparator<Swap> swapComparator();
 
+    /**
+     * Pairs a round, keeping the pairer's list. By default no list is kept;
+     * strategies which resolve impermissibles override this.
+     * @param teams the teams to pair
+     * @return the paired round and its pairer's list
+     * @throws TournamentStateException if the round can't be paired
+     */
+    public PairingResult pairWithPairersList(ArrayList<Team> teams) throws TournamentStateException {
+        PairingMetrics metrics = new PairingMetrics();
+        long start = System.nanoTime();
+        Round round = pair(teams);
+        metrics.totalNanos = System.nanoTime() - start;
+        List<Swap> swaps = Collections.<Swap>emptyList();
+        reportPairingEvent(PairingEvent.PAIRED, swaps, metrics);
+        return new PairingResult(round, swaps, metrics);
+    }
+
+    /**
+     * Commits a flight recorder event for a finished pairing, if it is being
+     * recorded.
+     * @param event the event, begun when pairing started
+     * @param teams the teams paired
+     * @param metrics the pairing's metrics
+     */
+    protected void recordPairRoundEvent(PairRoundEvent event, List<Team> teams, PairingMetrics metrics) {
+        event.record(roundBeingPaired(teams), this, teams.size(), metrics.sortNanos, metrics.resolveNanos, metrics.swaps,
+                metrics.maxReach, metrics.restarts, metrics.candidatesEvaluated);
+    }
+
+    /**
+     * Works out which round some teams are being paired for, from the rounds
+     * they have already played.
+     * @param teams the teams being paired
+     * @return the number of the round, starting from 1
+     */
+    static int roundBeingPaired(List<Team> teams) {
+        return teams.isEmpty() ? 1 : teams.get(0).getNumRoundsPlayed() + 1;
+    }
+
+    /**
+     * Describes the tie-break conventions (usually decided by coin toss) this
+     * strategy was created with.
+     * @return a human-readable description, empty if there are none
+     */
+    public String getConventions() {
+        return "";
+    }
+
+    /**
+     * Gets the way this strategy resolves impermissibles.
+     * @return MANUAL_CARDS or WORKLIST
+     */
+    public int getResolutionMode() {
+        return resolutionMode;
+    }
+
+    /**
+     * Sets the way this strategy resolves impermissibles.
+     * @param resolutionMode MANUAL_CARDS or WORKLIST
+     */
+    public void setResolutionMode(int resolutionMode) {
+        if(resolutionMode != MANUAL_CARDS && resolutionMode != WORKLIST) {
+            throw new IllegalArgumentException("Unknown resolution mode " + resolutionMode);
+        }
+        this.resolutionMode = resolutionMode;
+    }
+
     /**
      * Registers a new PairingEventListener
      * @param l the listener to register
      */
     public void addPairingEventListener(PairingEventListener l) {
-        pairingEventListeners.add(l);
+        pairingEvents.addListener(l);
+    }
+
+    /**
+     * Registers a new PairingEventListener for only the given types of event
+     * @param l the listener to register
+     * @param types the types of event it wants (see PairingEvent)
+     */
+    public void addPairingEventListener(PairingEventListener l, int... types) {
+        pairingEvents.addListener(l, types);
+    }
+
+    /**
+     * Unregisters a PairingEventListener
+     * @param l the listener to unregister
+     */
+    public void removePairingEventListener(PairingEventListener l) {
+        pairingEvents.removeListener(l);
     }
 
     /**
@@ -49,18 +153,41 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      * @return an array of registered listeners
      */
     public PairingEventListener[] getPairingEventListeners() {
-        return pairingEventListeners.toArray(new PairingEventListener[0]);
+        return pairingEvents.getListeners();
+    }
+
+    /**
+     * Finds out whether anyone is listening for a type of pairing event, so
+     * that an expensive event needn't be built for nobody.
+     * @param type the kind of event (see PairingEvent)
+     * @return true if an event of that type would reach a listener
+     */
+    protected boolean isPairingEventWanted(int type) {
+        return pairingEvents.isSubscribed(type);
     }
 
     /**
-     * Dispatches a new pairing event to all registered listeners
-     * @param event a description of the event that occurred
-     * @param data an object with additional data about the pairing event
+     * Dispatches a new pairing event to the listeners registered for its
+     * type. If there are none, nothing is created or copied.
+     * @param type the kind of event (see PairingEvent)
+     * @param pairersList the swaps made so far
+     * @param metrics the pairing's metrics so far
      */
-    protected void reportPairingEvent(String event, Object data) {
-        for(PairingEventListener l : getPairingEventListeners()) {
-            l.pairingEventOccurred(event, data);
+    protected void reportPairingEvent(int type, List<Swap> pairersList, PairingMetrics metrics) {
+        if(!pairingEvents.isSubscribed(type)) {
+            return;
         }
+        pairingEvents.dispatch(new PairingEvent(type, this, pairersList, metrics));
+    }
+
+    /**
+     * Dispatches a pairing event created on demand to the listeners
+     * registered for its type, only creating it if there are any.
+     * @param type the kind of event (see PairingEvent)
+     * @param supplier creates the event
+     */
+    protected void reportPairingEvent(int type, PairingEventSupplier supplier) {
+        pairingEvents.dispatch(type, supplier);
     }
 
     /**
@@ -72,12 +199,8 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      */
     protected boolean isPermitted(Team team1, Team team2) {
         // make sure the teams agree about the permissibility of the match
-        if(team1.canHit(team2) && !team2.canHit(team1)) {
-            assert false: "Sanity check failed: teams are not mutually impermissible";
-        }
-        if(team2.canHit(team1) && !team1.canHit(team2)) {
-            assert false: "Sanity check failed: teams are not mutually impermissible";
-        }
+        assert team1.canHit(team2) == team2.canHit(team1) :
+            "Sanity check failed: teams are not mutually impermissible";
         return team1.canHit(team2);
     }
 
@@ -85,15 +208,14 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      * Utility method to randomly shuffle a list of teams (does not modify the
      * original list).
      * @param teams the list of teams to shuffle
+     * @param random the source of randomness to shuffle with
      * @return a shuffled list of teams
      */
-    protected ArrayList<Team> shuffle(ArrayList<Team> teams) {
-        teams = (ArrayList<Team>)teams.clone();
-        ArrayList<Team> newstack = new ArrayList<Team>();
-        int len = teams.size();
-        while(len > 0) {
-            newstack.add(teams.remove((int)(len * Math.random())));
-            len--;
+    protected ArrayList<Team> shuffle(ArrayList<Team> teams, RandomSource random) {
+        ArrayList<Team> newstack = new ArrayList<Team>(teams);
+        // Fisher-Yates, so every ordering is equally likely
+        for(int i = newstack.size() - 1; i > 0; i--) {
+            Collections.swap(newstack, i, random.nextInt(i + 1));
         }
         return newstack;
     }
@@ -106,7 +228,7 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      * This method is designed to simulate, as closely as possible, the
      * procedure carried out by human tabulators with stacks of tab cards.
      * Each Team object represents a card, and the pi and delta ArrayLists
-     * represent the card stacks.
+     * (wrapped in CardStacks while we work) represent the card stacks.
      *
      * @param pi The list of teams who need to go Prosecution/Plaintiff in the
      * next round
@@ -114,22 +236,55 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      * @return The pairer's list
      */
     protected List<Swap> sideConstrainedResolveImpermissibles(ArrayList<Team> pi, ArrayList<Team> delta) {
+        return sideConstrainedResolveImpermissibles(pi, delta, new PairingMetrics());
+    }
+
+    /**
+     * Resolves impermissibles exactly as
+     * sideConstrainedResolveImpermissibles(pi, delta) does, counting the work
+     * done in the given metrics.
+     * @param pi The list of teams who need to go Prosecution/Plaintiff in the
+     * next round
+     * @param delta The list of teams who need to go Defense in the next round
+     * @param metrics where the resolution's time and counters are added
+     * @return The pairer's list
+     */
+    protected List<Swap> sideConstrainedResolveImpermissibles(ArrayList<Team> pi, ArrayList<Team> delta,
+            PairingMetrics metrics) {
+        ResolveEvent event = new ResolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int rowsChecked = metrics.rowsChecked, restarts = metrics.restarts, swaps = metrics.swaps;
+        try {
+            return sideConstrainedResolve(pi, delta, metrics);
+        } finally {
+            metrics.resolveNanos += System.nanoTime() - start;
+            recordResolveEvent(event, pi, 2 * pi.size(), true, metrics,
+                    rowsChecked, restarts, swaps);
+        }
+    }
+
+    private List<Swap> sideConstrainedResolve(ArrayList<Team> pi, ArrayList<Team> delta, PairingMetrics metrics) {
 
         // Make sure both stacks are the same size
         assert pi.size() == delta.size() : "Sanity check failed: lists are not the same length";
 
         // Assign P and D ranks to the pi and delta stacks respectively
-        assignRanks(pi);
-        assignRanks(delta);
+        CardStack piStack = new CardStack(pi);
+        CardStack deltaStack = new CardStack(delta);
+
+        // prepare the Pairer's list (a Swap is equal to any other swap of the
+        // same two teams, so this also tells us which swaps we've tried)
+        LinkedHashSet<Swap> swaps = new LinkedHashSet<Swap>();
 
-        // prepare the Pairer's list
-        ArrayList<Swap> swaps = new ArrayList<Swap>();
+        ResolutionCursor cursor = new ResolutionCursor(pi.size(), resolutionMode);
 
-        for(int i = 0; i < pi.size(); i++) {
+        for(int i = cursor.next(); i >= 0; i = cursor.next()) {
         // for every pair of cards in the stack
 
-            Team t1 = pi.get(i);
-            Team t2 = delta.get(i);
+            Team t1 = piStack.get(i);
+            Team t2 = deltaStack.get(i);
+            metrics.rowsChecked++;
 
             if(isPermitted(t1, t2)) {
                 // keep looking farther down
@@ -137,9 +292,8 @@ public abstract class BasePairingStrategy implements PairingStrategy {
             }
 
             // Otherwise, this match is impermissible. The resolution may generate
-            // another impermissible match higher up, so we have to go back to
-            // the top of the stack on the next turn.
-            i = -1;
+            // another impermissible match higher up, so the cursor will take
+            // us back up the stack on the next turn.
 
             ArrayList<Swap> swapCandidates;
             int reach = 1; // The distance out we will look for candidate swaps
@@ -148,62 +302,51 @@ public abstract class BasePairingStrategy implements PairingStrategy {
                 if(reach > pi.size()) {
                 // we have tried every possible swap: give up. (N.B. this has
                 // never happened in a real round)
-                    reportPairingEvent(PairingEventListener.UNPAIRABLE, null);
-                    return swaps;
+                    metrics.unpairable = true;
+                    List<Swap> pairersList = finishResolution(swaps, cursor, metrics);
+                    reportPairingEvent(PairingEvent.UNPAIRABLE, pairersList, metrics);
+                    return pairersList;
                 }
                 // get swap candidates in the pi column
-                swapCandidates = getSwapCandidates(t1, pi, swaps, reach, Match.PI);
+                swapCandidates = getSwapCandidates(t1, piStack, swaps, reach, Match.PI);
                 // and the delta column
-                swapCandidates.addAll(getSwapCandidates(t2, delta, swaps, reach, Match.DELTA));
+                swapCandidates.addAll(getSwapCandidates(t2, deltaStack, swaps, reach, Match.DELTA));
                 // increment the reach in case there were no candidates
                 reach++;
             } while(swapCandidates.size() == 0);
 
             // rank the available swaps by desirability
             Collections.sort(swapCandidates, swapComparator());
+            metrics.candidatesEvaluated += swapCandidates.size();
             // pick the most desirable
             Swap chosenSwap = swapCandidates.get(0);
-            ArrayList<Team> workingList;
+            CardStack workingStack;
 
-            // choose which list we're modifying on this step
+            // choose which stack we're modifying on this step
             if(chosenSwap.contains(t1)) {
-                workingList = pi;
+                workingStack = piStack;
             } else if(chosenSwap.contains(t2)) {
-                workingList = delta;
+                workingStack = deltaStack;
             } else {
                 assert false : "Sanity check failed: neither impermissible team is team1";
-                workingList = null;
+                workingStack = null;
             }
 
             Team badTeam = chosenSwap.getTeam1(); // the team that caused the impermissible
             Team goodTeam = chosenSwap.getTeam2(); // the team used to resolve it
 
-            // swap the rank numbers of the two teams
-            int oldBadRank = badTeam.getRank();
-            badTeam.setRank(goodTeam.getRank());
-            goodTeam.setRank(oldBadRank);
-
-            // swap the stack positions of the two teams
-            int oldBadIndex = workingList.indexOf(badTeam);
-            int oldGoodIndex = workingList.indexOf(goodTeam);
-            workingList.remove(badTeam);
-            workingList.remove(goodTeam);
-
-            if(oldBadIndex < oldGoodIndex) {
-                workingList.add(oldBadIndex, goodTeam);
-                workingList.add(oldGoodIndex, badTeam);
-            } else if (oldGoodIndex < oldBadIndex) {
-                workingList.add(oldGoodIndex, badTeam);
-                workingList.add(oldBadIndex, goodTeam);
-            } else {
-                assert false : "Sanity check failed: bad team and good team have the same index!";
-            }
+            // swap the rank numbers and stack positions of the two teams
+            int badRow = workingStack.positionOf(badTeam);
+            int goodRow = workingStack.positionOf(goodTeam);
+            workingStack.swap(badTeam, goodTeam);
+            cursor.swapped(badRow, goodRow);
 
             // remember this swap in the pairer's list
             swaps.add(chosenSwap);
+            metrics.maxReach = Math.max(metrics.maxReach, chosenSwap.getReach());
         }
 
-        return swaps;
+        return finishResolution(swaps, cursor, metrics);
 
     }
 
@@ -214,25 +357,53 @@ public abstract class BasePairingStrategy implements PairingStrategy {
      *
      * This method is designed to simulate, as closely as possible, the
      * procedure carried out by human tabulators with stacks of tab cards.
-     * Each Team object represents a card, and the teams ArrayList represents
-     * the team stack
+     * Each Team object represents a card, and the teams ArrayList (wrapped in
+     * a CardStack while we work) represents the team stack
      *
      * @param teams The list of teams to be paired
      * @return The pairer's list
      */
     protected List<Swap> resolveImpermissibles(ArrayList<Team> teams) {
+        return resolveImpermissibles(teams, new PairingMetrics());
+    }
+
+    /**
+     * Resolves impermissibles exactly as resolveImpermissibles(teams) does,
+     * counting the work done in the given metrics.
+     * @param teams The list of teams to be paired
+     * @param metrics where the resolution's time and counters are added
+     * @return The pairer's list
+     */
+    protected List<Swap> resolveImpermissibles(ArrayList<Team> teams, PairingMetrics metrics) {
+        ResolveEvent event = new ResolveEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int rowsChecked = metrics.rowsChecked, restarts = metrics.restarts, swaps = metrics.swaps;
+        try {
+            return resolve(teams, metrics);
+        } finally {
+            metrics.resolveNanos += System.nanoTime() - start;
+            recordResolveEvent(event, teams, teams.size(), false, metrics,
+                    rowsChecked, restarts, swaps);
+        }
+    }
+
+    private List<Swap> resolve(ArrayList<Team> teams, PairingMetrics metrics) {
 
         // Assign ranks to the stack
-        assignRanks(teams);
+        CardStack stack = new CardStack(teams);
 
         // Prepare the pairer's list
-        ArrayList<Swap> swaps = new ArrayList<Swap>();
+        LinkedHashSet<Swap> swaps = new LinkedHashSet<Swap>();
+
+        ResolutionCursor cursor = new ResolutionCursor(stack.size() / 2, resolutionMode);
 
-        for(int i = 0; i < teams.size() - 1; i += 2) {
+        for(int row = cursor.next(); row >= 0; row = cursor.next()) {
         // for every pair of teams in the pairer's list
 
-            Team t1 = teams.get(i);
-            Team t2 = teams.get(i + 1);
+            Team t1 = stack.get(2 * row);
+            Team t2 = stack.get(2 * row + 1);
+            metrics.rowsChecked++;
 
             if(isPermitted(t1, t2)) {
                 // this match is allowed, look farther down
@@ -240,24 +411,25 @@ public abstract class BasePairingStrategy implements PairingStrategy {
             }
 
             // Otherwise, the pairing is impermissible. The resolution at this
-            // step may create another impermissible higher up, so we'll need
-            // to go back to the top of the stack on the next turn.
-            i = -2;
+            // step may create another impermissible higher up, so the cursor
+            // will take us back up the stack on the next turn.
 
             ArrayList<Swap> swapCandidates;
             int reach = 1; // the distance out we will look for candidate swaps
 
             do {
 
-                if(reach > teams.size()) {
+                if(reach > stack.size()) {
                     // We have tried every possible swap: give up.
-                    reportPairingEvent(PairingEventListener.UNPAIRABLE, null);
-                    return swaps;
+                    metrics.unpairable = true;
+                    List<Swap> pairersList = finishResolution(swaps, cursor, metrics);
+                    reportPairingEvent(PairingEvent.UNPAIRABLE, pairersList, metrics);
+                    return pairersList;
                 }
 
                 // get the candidate swaps for each team
-                swapCandidates = getSwapCandidates(t1, teams, swaps, reach, Match.NO_SIDE);
-                swapCandidates.addAll(getSwapCandidates(t2, teams, swaps, reach, Match.NO_SIDE));
+                swapCandidates = getSwapCandidates(t1, stack, swaps, reach, Match.NO_SIDE);
+                swapCandidates.addAll(getSwapCandidates(t2, stack, swaps, reach, Match.NO_SIDE));
 
                 // make sure we don't attempt to swap the teams with each other
                 Swap forbidden = new Swap(t1, t2, Match.NO_SIDE);
@@ -273,6 +445,7 @@ public abstract class BasePairingStrategy implements PairingStrategy {
 
             // rank the swaps by desirability, and
             Collections.sort(swapCandidates, swapComparator());
+            metrics.candidatesEvaluated += swapCandidates.size();
             // choose the most desirable
             Swap chosenSwap = swapCandidates.get(0);
 
@@ -287,56 +460,74 @@ public abstract class BasePairingStrategy implements PairingStrategy {
             Team badTeam = chosenSwap.getTeam1(); // the team that caused the impermissible
             Team goodTeam = chosenSwap.getTeam2(); // the team that will fix it
 
-            // swap ranks
-            int oldBadRank = badTeam.getRank();
-            badTeam.setRank(goodTeam.getRank());
-            goodTeam.setRank(oldBadRank);
-
-            // and list positions
-            int oldBadIndex = teams.indexOf(badTeam);
-            int oldGoodIndex = teams.indexOf(goodTeam);
-            teams.remove(badTeam);
-            teams.remove(goodTeam);
-
-            if(oldBadIndex < oldGoodIndex) {
-                teams.add(oldBadIndex, goodTeam);
-                teams.add(oldGoodIndex, badTeam);
-            } else if (oldGoodIndex < oldBadIndex) {
-                teams.add(oldGoodIndex, badTeam);
-                teams.add(oldBadIndex, goodTeam);
-            } else {
-                assert false : "Sanity check failed: bad team and good team have the same index!";
-            }
+            // swap ranks and stack positions
+            int badRow = stack.positionOf(badTeam) / 2;
+            int goodRow = stack.positionOf(goodTeam) / 2;
+            stack.swap(badTeam, goodTeam);
+            cursor.swapped(badRow, goodRow);
 
             // add swap to the pairer's list
             swaps.add(chosenSwap);
+            metrics.maxReach = Math.max(metrics.maxReach, chosenSwap.getReach());
 
         }
 
 
-        return swaps;
+        return finishResolution(swaps, cursor, metrics);
+    }
+
+    /**
+     * Commits a flight recorder event for a finished resolution, if it is
+     * being recorded.
+     * @param event the event, begun when resolution started
+     * @param stack one of the stacks being resolved
+     * @param teams the number of teams in the stacks
+     * @param sideConstrained whether the round was side-constrained
+     * @param metrics the pairing's metrics when resolution finished
+     * @param rowsChecked the rows already checked when resolution started
+     * @param restarts the restarts already made when resolution started
+     * @param swaps the swaps already made when resolution started
+     */
+    private void recordResolveEvent(ResolveEvent event, List<Team> stack, int teams, boolean sideConstrained,
+            PairingMetrics metrics, int rowsChecked, int restarts, int swaps) {
+        event.record(roundBeingPaired(stack), teams, sideConstrained, resolutionMode == MANUAL_CARDS,
+                metrics.rowsChecked - rowsChecked, metrics.restarts - restarts,
+                metrics.swaps - swaps, metrics.maxReach, metrics.unpairable);
+    }
+
+    /**
+     * Records the totals of a finished resolution in its metrics.
+     * @param swaps the swaps made
+     * @param cursor the cursor the resolution walked the stack with
+     * @param metrics the resolution's metrics
+     * @return the pairer's list
+     */
+    private static List<Swap> finishResolution(Set<Swap> swaps, ResolutionCursor cursor, PairingMetrics metrics) {
+        metrics.swaps += swaps.size();
+        metrics.restarts += cursor.getRestarts();
+        return new ArrayList<Swap>(swaps);
     }
 
     /**
      * Gets potential swap partners for the given team from the given list
      * @param t The team we're trying to swap out
-     * @param teams The list of teams we can swap with
-     * @param madeSwaps The list of swaps we've already made
+     * @param teams The stack of teams we can swap with
+     * @param madeSwaps The swaps we've already made
      * @param reach The distance out to look for swaps
      * @param side The side of the case we're making this swap on
      * @return A list of candidate swaps
      */
-    protected ArrayList<Swap> getSwapCandidates(Team t, ArrayList<Team> teams, ArrayList<Swap> madeSwaps, int reach, int side) {
+    protected ArrayList<Swap> getSwapCandidates(Team t, CardStack teams, Set<Swap> madeSwaps, int reach, int side) {
         // Each team has at most two candidate swaps
         ArrayList<Swap> candidates = new ArrayList<Swap>(2);
 
-        int rank = t.getRank();
+        int rank = teams.rankOf(t);
 
         if(rank > reach) {
             // we're high enough up in the list to look below us for candidates
             // get the candidate, and
-            Team cand = getWithRank(rank - reach, teams);
-            Swap candSwap = new Swap(t, cand, side);
+            Team cand = teams.getWithRank(rank - reach);
+            Swap candSwap = new Swap(t, cand, side, rank + teams.rankOf(cand), reach);
             // add it to the list if we haven't already tried it
             if(!madeSwaps.contains(candSwap)) {
                 candidates.add(candSwap);
@@ -346,8 +537,8 @@ public abstract class BasePairingStrategy implements PairingStrategy {
         if(rank < teams.size() + 1 - reach) {
             // we're low enough in the list that we can look above us for candidates
             // get the candidate
-            Team cand = getWithRank(rank + reach, teams);
-            Swap candSwap = new Swap(t, cand, side);
+            Team cand = teams.getWithRank(rank + reach);
+            Swap candSwap = new Swap(t, cand, side, rank + teams.rankOf(cand), reach);
             // add it to the list if we haven't already tried it
             if(!madeSwaps.contains(candSwap)) {
                 candidates.add(candSwap);
@@ -357,32 +548,4 @@ public abstract class BasePairingStrategy implements PairingStrategy {
         return candidates;
     }
 
-    /**
-     * Numbers the teams in a list according to their position.
-     * @param toRank The list of teams to rank
-     */
-    protected void assignRanks(ArrayList<Team> toRank) {
-        int i = 1;
-        for(Team team : toRank) {
-            team.setRank(i);
-            i++;
-        }
-    }
-
-    /**
-     * Gets the Team with the given rank from the given list
-     * @param rank The rank we're looking for
-     * @param teams The teams we're looking in
-     * @return The requested team
-     */
-    protected Team getWithRank(int rank, ArrayList<Team> teams) {
-        for(Team t : teams) {
-            if(t.getRank() == rank) {
-                return t;
-            }
-        }
-        assert false : "Sanity check failed: no team with rank " + rank;
-        return null;
-    }
-
 }
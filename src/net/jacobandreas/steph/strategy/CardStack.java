@@ -0,0 +1,102 @@
+package net.jacobandreas.steph.strategy;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * A stack of tab cards, as used while resolving impermissibles. Each card's
+ * rank number is always one more than its position in the stack, so looking
+ * up the card with a given rank, finding where a card sits in the stack and
+ * swapping two cards are all constant-time operations.
+ *
+ * The stack is backed by the list it was created from, which is rearranged in
+ * place as cards are swapped. The rank numbers belong to the stack, not the
+ * teams, so pairing never writes to a Team and several stacks holding the
+ * same teams can be worked on at once.
+ *
+ * @author jacob
+ */
+public class CardStack {
+
+    private final ArrayList<Team> cards;
+    // each card's position in the stack, by slot
+    private final TeamSlots slots;
+    private final int[] positions;
+
+    /**
+     * Creates a new card stack from the given list of teams, numbering each
+     * card according to its position.
+     * @param cards the teams in the stack, in order
+     */
+    public CardStack(ArrayList<Team> cards) {
+        this.cards = cards;
+        slots = new TeamSlots(cards);
+        positions = new int[cards.size()];
+        for(int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+    }
+
+    /**
+     * Gets the number of cards in the stack.
+     * @return the size of the stack
+     */
+    public int size() {
+        return cards.size();
+    }
+
+    /**
+     * Gets the card at the given position in the stack.
+     * @param position the position of the card, counting from 0
+     * @return the team at that position
+     */
+    public Team get(int position) {
+        return cards.get(position);
+    }
+
+    /**
+     * Gets the card with the given rank.
+     * @param rank the rank we're looking for
+     * @return the requested team
+     */
+    public Team getWithRank(int rank) {
+        return cards.get(rank - 1);
+    }
+
+    /**
+     * Gets the rank number on the given card.
+     * @param t a team in the stack
+     * @return the rank of t
+     */
+    public int rankOf(Team t) {
+        return positionOf(t) + 1;
+    }
+
+    /**
+     * Gets the position of the given card in the stack.
+     * @param t a team in the stack
+     * @return the position of t, counting from 0
+     */
+    public int positionOf(Team t) {
+        int slot = slots.slotOf(t);
+        assert slot >= 0 : "Sanity check failed: " + t + " is not in the stack";
+        return positions[slot];
+    }
+
+    /**
+     * Swaps two cards, exchanging both their rank numbers and their
+     * positions in the stack.
+     * @param a the first team to swap
+     * @param b the second team to swap
+     */
+    public void swap(Team a, Team b) {
+        int aPosition = positionOf(a);
+        int bPosition = positionOf(b);
+        assert aPosition != bPosition : "Sanity check failed: bad team and good team have the same index!";
+        cards.set(aPosition, b);
+        cards.set(bPosition, a);
+        positions[slots.slotOf(a)] = bPosition;
+        positions[slots.slotOf(b)] = aPosition;
+    }
+
+}
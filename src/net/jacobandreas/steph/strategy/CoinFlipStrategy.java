@@ -1,5 +1,7 @@
 package net.jacobandreas.steph.strategy;
 
+import java.util.*;
+
 /**
  * Interface implemented by coin flip strategies, used to determine the outcome
  * of various random draws required by the pairing process.
@@ -19,4 +21,38 @@ public interface CoinFlipStrategy {
      */
     public int getFlip(String message, String headsm, String tailsm);
 
+    /**
+     * Puts a group of tied items in a random order, every order being equally
+     * likely. The whole group is drawn at once, so a strategy which can draw
+     * lots (e.g. a shuffle) can override this to do so in one go.
+     *
+     * By default the order is drawn with getFlip: a tie between two items
+     * takes exactly one flip, and a larger group picks each position in turn
+     * with one flip per binary digit, flipping again if the number drawn is
+     * out of range.
+     * @param message A description of the purpose of this draw
+     * @param tied the tied items, reordered in place
+     */
+    public default <T> void getDraw(String message, List<T> tied) {
+        for(int i = tied.size() - 1; i > 0; i--) {
+            // which of the first i + 1 items goes in position i
+            int j;
+            if(i == 1) {
+                j = getFlip(message, tied.get(0) + " ranks ahead of " + tied.get(1),
+                        tied.get(1) + " ranks ahead of " + tied.get(0)) == HEADS ? 1 : 0;
+            } else {
+                do {
+                    j = 0;
+                    for(int bit = Integer.highestOneBit(i); bit > 0; bit >>>= 1) {
+                        if(getFlip(message + " (drawing place " + (i + 1) + " of " + tied.size()
+                                + " from the first " + (i + 1) + ")", "count " + bit, "count 0") == HEADS) {
+                            j |= bit;
+                        }
+                    }
+                } while(j > i);
+            }
+            Collections.swap(tied, i, j);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,179 @@
+package net.jacobandreas.steph.strategy;
+
+import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Pairs a round under every combination of the tie-break conventions that tab
+ * rooms decide by coin toss (whether higher or lower team numbers win ties,
+ * and for round 3, which column goes pros/plaintiff), all at once, and
+ * collects the distinct pairings that result. If there is only one, the coin
+ * toss doesn't matter for this round.
+ *
+ * The variants are paired in parallel against the same teams; pairing only
+ * reads the teams, so this is safe as long as nobody changes them meanwhile.
+ *
+ * @author jacob
+ */
+public class ConventionVariants {
+
+    private final BasePairingStrategy[] variants;
+
+    /**
+     * Creates a new set of variants to compare.
+     * @param variants one strategy for each combination of conventions
+     */
+    public ConventionVariants(BasePairingStrategy... variants) {
+        this.variants = variants.clone();
+    }
+
+    /**
+     * Gets every variant of round 2 pairing.
+     * @return the variants
+     */
+    public static ConventionVariants forRound2() {
+        return new ConventionVariants(
+                new Round2PairingStrategy(true),
+                new Round2PairingStrategy(false));
+    }
+
+    /**
+     * Gets every variant of round 3 pairing.
+     * @return the variants
+     */
+    public static ConventionVariants forRound3() {
+        return new ConventionVariants(
+                new Round3PairingStrategy(true, true),
+                new Round3PairingStrategy(true, false),
+                new Round3PairingStrategy(false, true),
+                new Round3PairingStrategy(false, false));
+    }
+
+    /**
+     * Gets every variant of nationals-style round 4 pairing.
+     * @return the variants
+     */
+    public static ConventionVariants forRound4Nationals() {
+        return new ConventionVariants(
+                new Round4NationalsPairingStrategy(true),
+                new Round4NationalsPairingStrategy(false));
+    }
+
+    /**
+     * Pairs the next round with every variant in parallel.
+     * @param teams the teams to pair
+     * @return the distinct pairings, in the order of the first variant to
+     * produce each one
+     * @throws TournamentStateException if any variant couldn't pair the round
+     */
+    public List<Outcome> pair(Collection<Team> teams) throws TournamentStateException {
+        final ArrayList<Team> field = new ArrayList<Team>(teams);
+
+        List<Callable<PairingResult>> tasks = new ArrayList<Callable<PairingResult>>(variants.length);
+        for(final BasePairingStrategy variant : variants) {
+            tasks.add(new Callable<PairingResult>() {
+                public PairingResult call() throws TournamentStateException {
+                    // each variant gets its own list, since pairing may
+                    // reorder it
+                    return variant.pairWithPairersList(new ArrayList<Team>(field));
+                }
+            });
+        }
+
+        List<Future<PairingResult>> results = ForkJoinPool.commonPool().invokeAll(tasks);
+
+        // group variants which produced the same matches
+        LinkedHashMap<Set<Match>, Outcome> outcomes = new LinkedHashMap<Set<Match>, Outcome>();
+        for(int i = 0; i < variants.length; i++) {
+            PairingResult result = get(results.get(i));
+            Set<Match> matches = new HashSet<Match>(result.getRound().getMatches());
+            Outcome outcome = outcomes.get(matches);
+            if(outcome == null) {
+                outcome = new Outcome(result);
+                outcomes.put(matches, outcome);
+            }
+            outcome.strategies.add(variants[i]);
+        }
+        return new ArrayList<Outcome>(outcomes.values());
+    }
+
+    /**
+     * Waits for a variant to finish pairing.
+     * @param future the pairing
+     * @return the result
+     * @throws TournamentStateException if the variant couldn't pair the round
+     */
+    private static PairingResult get(Future<PairingResult> future) throws TournamentStateException {
+        try {
+            return future.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pairing variants", e);
+        } catch(ExecutionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof TournamentStateException) {
+                throw (TournamentStateException) cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * One distinct pairing, and every variant that produced it.
+     */
+    public static class Outcome {
+
+        private final PairingResult result;
+        private final List<BasePairingStrategy> strategies;
+
+        Outcome(PairingResult result) {
+            this.result = result;
+            strategies = new ArrayList<BasePairingStrategy>();
+        }
+
+        /**
+         * Gets the round, as paired by the first variant to produce it.
+         * @return the paired round
+         */
+        public Round getRound() {
+            return result.getRound();
+        }
+
+        /**
+         * Gets the pairer's list made by the first variant to produce this
+         * pairing (other variants may have reached it by different swaps).
+         * @return the swaps made
+         */
+        public List<Swap> getPairersList() {
+            return result.getPairersList();
+        }
+
+        /**
+         * Gets every variant that produced this pairing.
+         * @return the strategies
+         */
+        public List<BasePairingStrategy> getStrategies() {
+            return Collections.unmodifiableList(strategies);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder s = new StringBuilder();
+            for(BasePairingStrategy strategy : strategies) {
+                s.append("[" + strategy.getConventions() + "] ");
+            }
+            s.append("\n" + getRound());
+            return s.toString();
+        }
+
+    }
+
+}
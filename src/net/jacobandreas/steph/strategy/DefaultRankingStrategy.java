@@ -1,12 +1,12 @@
 package net.jacobandreas.steph.strategy;
 
 import java.util.*;
+import net.jacobandreas.steph.jfr.*;
 import net.jacobandreas.steph.tournament.*;
 
-/// All signs for these comparators are the opposite of what we we would expect,
-/// (i.e. high numbers come before low numbers) because the highest values
-/// produce the lowest ranks (e.g. the team with the most wins gets the lowest
-/// rank (1st).
+/// All of these tiebreakers put high numbers before low numbers, because the
+/// highest values produce the lowest ranks (e.g. the team with the most wins
+/// gets the lowest rank (1st).
 
 /**
  * Standard AMTA strategy to determine final rankings for a tournament.
@@ -20,6 +20,33 @@ public class DefaultRankingStrategy implements RankingStrategy {
     // to avoid roundoff errors in float arithmetic
     public static final double TOLERANCE = 0.01;
 
+    /**
+     * Ranks teams using only record and CS (needed to figure out tied groups
+     * for SOL and SOW calculation).
+     */
+    private static final TiebreakChain RECORD_AND_CS = new TiebreakChain()
+            .then(TiebreakChain.WINS)
+            .then(TiebreakChain.COMBINED_STRENGTH);
+
+    /**
+     * Determines final rankings, using (in order): Win/Loss record, Combined
+     * Strength, Strength of Opposition, Point Differential and Total Points
+     * Earned, each of the last two dropping high/low ballots if there is
+     * still a tie. Anything left over goes to a coin toss.
+     */
+    private static final TiebreakChain RANKING = new TiebreakChain()
+            .then(TiebreakChain.WINS)
+            .then(TiebreakChain.COMBINED_STRENGTH)
+            .then(TiebreakChain.SOO_RANK)
+            .thenDropping(TiebreakChain.POINT_DIFFERENTIAL, 0)
+            .thenDropping(TiebreakChain.POINT_DIFFERENTIAL, 1)
+            .thenDropping(TiebreakChain.POINT_DIFFERENTIAL, 2)
+            .thenDropping(TiebreakChain.POINT_DIFFERENTIAL, 3)
+            .thenDropping(TiebreakChain.POINTS, 0)
+            .thenDropping(TiebreakChain.POINTS, 1)
+            .thenDropping(TiebreakChain.POINTS, 2)
+            .thenDropping(TiebreakChain.POINTS, 3);
+
     /**
      * Creates a new DefaultRankingStrategy which will rely on the given
      * CoinFlipStrategy for flips.
@@ -36,194 +63,115 @@ public class DefaultRankingStrategy implements RankingStrategy {
      * @return An ordered list of teams
      */
     public List<Team> rank(Collection<Team> teams) {
+        return rank(teams, new RankingContext());
+    }
+
+    /**
+     * Generates an ordered list of teams, with the first place winner at index
+     * 0, recording each team's SOW and SOL rank in the given context (which
+     * is cleared first). Does not modify the teams or the original collection.
+     * @param teams The teams to rank
+     * @param context Receives the SOW and SOL ranks used in the ranking
+     * @return An ordered list of teams
+     */
+    public List<Team> rank(Collection<Team> teams, RankingContext context) {
+        RankEvent event = new RankEvent();
+        event.begin();
         List<Team> myteams = new ArrayList<Team>();
         myteams.addAll(teams);
+        context.reset(myteams);
         // Rank teams using only record and CS (needed to figure out tied groups
         // for SOL and SOW calculation)
-        Collections.sort(myteams, getRecordAndCSComparator());
-        markSOWRank(myteams);
-        markSOLRank(myteams);
+        RECORD_AND_CS.sort(myteams);
+        markSOWAndSOLRanks(myteams, context);
         // Produce final ranking using marked SOW and SOL
-        Collections.sort(myteams, getRankingComparator());
-        return myteams;
-    }
-
-    /**
-     * Gets a comparator that sorts teams only according to their Win/Loss
-     * record and Combined Strength.
-     * @return a list of teams ranked by record, then by CS
-     */
-    private Comparator<Team> getRecordAndCSComparator() {
-        return new Comparator<Team>() {
-            public int compare(Team a, Team b) {
-
-                // record
-
-                if(Math.abs(a.getWins() - b.getWins()) > TOLERANCE) {
-                    return (int) -Math.signum(a.getWins() - b.getWins());
-                }
-
-                // cs
-
-                if(a.getCombinedStrength() != b.getCombinedStrength()) {
-                    return (int) -Math.signum(a.getCombinedStrength() - b.getCombinedStrength());
+        boolean[] tied = RANKING.sort(myteams, context);
+        // and settle whatever is still tied by coin toss
+        int start = 0;
+        for(int i = 1; i <= myteams.size(); i++) {
+            if(i == myteams.size() || !tied[i]) {
+                if(i - start > 1) {
+                    coinflips.getDraw("Coin flip to determine final ranking:",
+                            myteams.subList(start, i));
                 }
-
-                return 0;
+                start = i;
             }
-        };
+        }
+        event.record(myteams.isEmpty() ? 0 : myteams.get(0).getNumRoundsPlayed(), this, myteams.size());
+        return myteams;
     }
 
     /**
-     * Gets a comparator to determine final rankings, using (in order):
-     * Win/Loss record, Combined Strength, Strength of Opposition, Point
-     * Differential, Total Points Earned and Random Coin Toss.
-     * @return
+     * Marks teams with their Strength of Win and Strength of Loss Ranks, in a
+     * single pass over the teams. For an explanation of how to calculate SOW
+     * and SOL (and an explanation of the differences between SOW and SOW
+     * Rank) please consult the Tab Manual.
+     * @param teams the teams to mark, sorted by record and CS
+     * @param context where the ranks are recorded
      */
-    private Comparator<Team> getRankingComparator() {
-        return new Comparator<Team>() {
-            public int compare(Team a, Team b) {
-
-                // record and cs (just reuse the old comparator)
-
-                Comparator<Team> c1 = getRecordAndCSComparator();
-
-                if(c1.compare(a, b) != 0) {
-                    return c1.compare(a, b);
-                }
-
-                // soo
-
-                double sooDiff = a.getSOORank() - b.getSOORank();
-                if(Math.abs(sooDiff) > TOLERANCE) {
-                    return (int) -Math.signum(sooDiff);
-                }
-
-                // pd, dropping high/low ballots if there is a tie
-
-                for(int drop = 0; drop <= 3; drop++) {
-                    int pdDiff = -(a.getPointDifferentialDropping(drop) - b.getPointDifferentialDropping(drop));
-                    if(pdDiff != 0) {
-                        return pdDiff;
-                    }
-                }
-
-                // raw points, dropping high/low ballots if there is a tie
+    private void markSOWAndSOLRanks(List<Team> teams, RankingContext context) {
+        int n = teams.size();
+        Team[] cards = teams.toArray(new Team[n]);
+
+        // look up everybody's numbers once
+        double[] wins = new double[n];
+        double[] cs = new double[n];
+        double[] sow = new double[n];
+        double[] sol = new double[n];
+        for(int i = 0; i < n; i++) {
+            wins[i] = cards[i].getWins();
+            cs[i] = cards[i].getCombinedStrength();
+            sow[i] = cards[i].getStrengthOfWin();
+            sol[i] = cards[i].getStrengthOfLoss();
+        }
 
-                for(int drop = 0; drop <= 3; drop++) {
-                    int pointDiff = -(a.getPointsDropping(drop) - b.getPointsDropping(drop));
-                    if(pointDiff != 0) {
-                        return pointDiff;
-                    }
-                }
+        // the rank that should be assigned to the next unranked team, and the
+        // first team in the current group of tied teams, for each of SOW and SOL
+        int sowLead = 1, sowStart = 0;
+        int solLead = 1, solStart = 0;
 
-                // coin toss
+        for(int curr = 1; curr < n; curr++) {
+            int prev = curr - 1;
+            // check to see if we're tied on record/cs with the previous team
+            // (i.e., if our SOW and SOL will be compared to theirs)
+            boolean recordCSTie = Math.abs(wins[curr] - wins[prev]) < TOLERANCE &&
+                    Math.abs(cs[curr] - cs[prev]) < TOLERANCE;
+            boolean sowTie = Math.abs(sow[curr] - sow[prev]) < TOLERANCE;
+            boolean solTie = Math.abs(sol[curr] - sol[prev]) < TOLERANCE;
 
-                switch(coinflips.getFlip("Coin flip to determine final ranking:",
-                        a + " has higher rank", b + " has higher rank")) {
-                    case CoinFlipStrategy.HEADS: return -1;
-                    default: return 1;
-                }
-            }
-        };
-    }
-
-    /**
-     * Marks teams with their Strength of Win Rank. For an explanation of how
-     * to calculate SOW (and an explanation of the differences between SOW and
-     * SOW Rank) please consult the Tab Manual.
-     * @param teams the teams to mark
-     */
-    private void markSOWRank(List<Team> teams) {
-        // the rank that should be assigned to the next unranked team
-        int leadRank = 1;
-        // holds all the teams tied with a given sow
-        LinkedList<Team> queue = new LinkedList<Team>();
-        for(Team curr : teams) {
-            if(queue.isEmpty()) {
-                // we haven't seen anybody with this SOW yet
-                queue.addLast(curr);
-                continue;
-            }
-            // check to see if we're tied on record/cs and SOW with the other
-            // teams in the queue (i.e., if we should have the same SOW Rank)
-            Team prev = queue.peekLast();
-            boolean recordCSTie = Math.abs(curr.getWins() - prev.getWins()) < TOLERANCE &&
-                    Math.abs(curr.getCombinedStrength() - prev.getCombinedStrength()) < TOLERANCE;
-            boolean sowTie = Math.abs(curr.getStrengthOfWin() - prev.getStrengthOfWin()) < TOLERANCE;
             if(!(recordCSTie && sowTie)) {
-                // if not (i.e. we're no longer looking at a tie), go back and
-                // assign the shared rank of all the teams in the queue (which
-                // are tied).
-                int tailRank = leadRank + queue.size() - 1;
-                double avgRank = (leadRank + tailRank) / 2d;
-                for(Team tiedTeam : queue) {
-                    tiedTeam.setSOWRank(avgRank);
-                }
-                // Then, reset the queue with the current element
-                queue = new LinkedList<Team>();
-                if(recordCSTie) {
-                    // the current team's SOW will be compared to the teams that were
-                    // in the queue, so make its rank greater
-                    leadRank += tailRank;
-                } else {
-                    // the current team's SOW will not be compared to the teams that
-                    // were in the queue, so reset the rank counter
-                    leadRank = 1;
+                // we're no longer looking at a SOW tie, so go back and assign
+                // the shared rank of all the teams in the group
+                int tailRank = sowLead + (curr - sowStart) - 1;
+                double avgRank = (sowLead + tailRank) / 2d;
+                for(int i = sowStart; i < curr; i++) {
+                    context.setSOWRank(cards[i], avgRank);
                 }
+                sowStart = curr;
+                // if the current team's SOW will be compared to the group's,
+                // make its rank greater; otherwise reset the rank counter
+                sowLead = recordCSTie ? sowLead + tailRank : 1;
             }
-            queue.addLast(curr);
-        }
-    }
 
-    /**
-     * Marks teams with their Strength of Win Rank. For an explanation of how
-     * to calculate SOW (and an explanation of the differences between SOW and
-     * SOW Rank) please consult the Tab Manual.
-     *
-     * //TODO This should probably be consolidated with markSOWRank
-     * 
-     * @param teams the teams to mark
-     */
-    private void markSOLRank(List<Team> teams) {
-        // the rank that should be assigned to the next unranked team
-        int leadRank = 1;
-        // holds all the teams tied with a given sol
-        LinkedList<Team> queue = new LinkedList<Team>();
-        for(Team curr : teams) {
-            if(queue.isEmpty()) {
-                // we haven't seen anybody with this SOL yet
-                queue.addLast(curr);
-                continue;
-            }
-            // check to see if we're tied on record/cs and SOL with the other
-            // teams in the queue (i.e., if we should have the same SOL Rank)
-            Team prev = queue.peekLast();
-            boolean recordCSTie = Math.abs(curr.getWins() - prev.getWins()) < TOLERANCE &&
-                    Math.abs(curr.getCombinedStrength() - prev.getCombinedStrength()) < TOLERANCE;
-            boolean solTie = Math.abs(curr.getStrengthOfLoss() - prev.getStrengthOfLoss()) < TOLERANCE;
             if(!(recordCSTie && solTie)) {
-                // if not (i.e. we're no longer looking at a tie), go back and
-                // assign the shared rank of all the teams in the queue (which
-                // are tied).
-                int tailRank = leadRank + queue.size() - 1;
-                double avgRank = (leadRank + tailRank) / 2d;
-                for(Team tiedTeam : queue) {
-                    tiedTeam.setSOLRank(avgRank);
-                }
-                // Then, reset the queue with the current Team
-                queue = new LinkedList<Team>();
-                if(recordCSTie) {
-                    // the current team's SOW will be compared to the teams that were
-                    // in the queue, so make its rank greater
-                    leadRank += tailRank;
-                } else {
-                    // the current team's SOW will not be compared to the teams that
-                    // were in the queue, so reset the rank counter
-                    leadRank = 1;
+                // likewise for SOL
+                int tailRank = solLead + (curr - solStart) - 1;
+                double avgRank = (solLead + tailRank) / 2d;
+                for(int i = solStart; i < curr; i++) {
+                    context.setSOLRank(cards[i], avgRank);
                 }
+                solStart = curr;
+                solLead = recordCSTie ? solLead + tailRank : 1;
             }
-            queue.addLast(curr);
+        }
+        // and the last group of each kind, which nothing came after
+        int sowTail = sowLead + (n - sowStart) - 1;
+        for(int i = sowStart; i < n; i++) {
+            context.setSOWRank(cards[i], (sowLead + sowTail) / 2d);
+        }
+        int solTail = solLead + (n - solStart) - 1;
+        for(int i = solStart; i < n; i++) {
+            context.setSOLRank(cards[i], (solLead + solTail) / 2d);
         }
     }
 
@@ -2,6 +2,7 @@ package net.jacobandreas.steph.strategy;
 
 import net.jacobandreas.steph.exception.*;
 import net.jacobandreas.steph.event.*;
+import net.jacobandreas.steph.jfr.*;
 import net.jacobandreas.steph.tournament.*;
 import java.util.*;
 
@@ -19,14 +20,14 @@ import java.util.*;
  */
 public class ManualPairingStrategy implements PairingStrategy {
 
-    private ArrayList<PairingEventListener> listeners;
+    private final PairingEventRegistry listeners;
     private Round round;
 
     /**
      * Creates a new ManualPairingStrategy with an empty list of matches.
      */
     public ManualPairingStrategy() {
-        listeners = new ArrayList<PairingEventListener>();
+        listeners = new PairingEventRegistry();
         round = new Round();
     }
 
@@ -50,11 +51,16 @@ public class ManualPairingStrategy implements PairingStrategy {
      * provided set of matches is incomplete or invalid.
      */
     public Round pair(ArrayList<Team> teams) throws TournamentStateException {
-        Collection<Team> roundTeams = getTeams();
-        if(!(roundTeams.containsAll(teams) && teams.containsAll(roundTeams))) {
+        PairRoundEvent event = new PairRoundEvent();
+        event.begin();
+        // compare as sets, since containsAll on lists is quadratic
+        Set<Team> roundTeams = new HashSet<Team>(getTeams());
+        if(!roundTeams.equals(new HashSet<Team>(teams))) {
             throw new TournamentStateException("Tournament teams and round " +
                     "teams don't match");
         }
+        // nothing to sort or resolve; the event just marks the round
+        event.record(BasePairingStrategy.roundBeingPaired(teams), this, teams.size(), 0, 0, 0, 0, 0, 0);
         return round;
     }
 
@@ -108,7 +114,24 @@ public class ManualPairingStrategy implements PairingStrategy {
      * @param l the listener to register
      */
     public void addPairingEventListener(PairingEventListener l) {
-        listeners.add(l);
+        listeners.addListener(l);
+    }
+
+    /**
+     * Registers a new PairingEventListener for only the given types of event
+     * @param l the listener to register
+     * @param types the types of event it wants (see PairingEvent)
+     */
+    public void addPairingEventListener(PairingEventListener l, int... types) {
+        listeners.addListener(l, types);
+    }
+
+    /**
+     * Unregisters a PairingEventListener
+     * @param l the listener to unregister
+     */
+    public void removePairingEventListener(PairingEventListener l) {
+        listeners.removeListener(l);
     }
 
     /**
@@ -116,7 +139,7 @@ public class ManualPairingStrategy implements PairingStrategy {
      * @return an array containing all the listeners
      */
     public PairingEventListener[] getPairingEventListeners() {
-        return listeners.toArray(new PairingEventListener[0]);
+        return listeners.getListeners();
     }
 
 }
@@ -0,0 +1,128 @@
+package net.jacobandreas.steph.strategy;
+
+/**
+ * Counters describing where the work went in pairing one round: how long the
+ * card stacks took to sort and to resolve, and how hard resolution was. They
+ * cost a few clock reads and integer increments per pairing, so they are
+ * always kept.
+ *
+ * @author jacob
+ */
+public class PairingMetrics {
+
+    long totalNanos;
+    long sortNanos;
+    long resolveNanos;
+    int rowsChecked;
+    int restarts;
+    int candidatesEvaluated;
+    int swaps;
+    int maxReach;
+    boolean unpairable;
+
+    /**
+     * Creates a new set of counters, all zero.
+     */
+    public PairingMetrics() {
+    }
+
+    /**
+     * Creates a copy of another set of counters, which doesn't change when
+     * they do.
+     * @param other the counters to copy
+     */
+    public PairingMetrics(PairingMetrics other) {
+        totalNanos = other.totalNanos;
+        sortNanos = other.sortNanos;
+        resolveNanos = other.resolveNanos;
+        rowsChecked = other.rowsChecked;
+        restarts = other.restarts;
+        candidatesEvaluated = other.candidatesEvaluated;
+        swaps = other.swaps;
+        maxReach = other.maxReach;
+        unpairable = other.unpairable;
+    }
+
+    /**
+     * Gets the time taken to pair the round, from start to finish.
+     * @return the elapsed time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Gets the time spent sorting card stacks.
+     * @return the elapsed time in nanoseconds
+     */
+    public long getSortNanos() {
+        return sortNanos;
+    }
+
+    /**
+     * Gets the time spent resolving impermissibles.
+     * @return the elapsed time in nanoseconds
+     */
+    public long getResolveNanos() {
+        return resolveNanos;
+    }
+
+    /**
+     * Gets the number of rows checked for impermissibles, counting rows
+     * checked again after a swap.
+     * @return the number of rows checked
+     */
+    public int getRowsChecked() {
+        return rowsChecked;
+    }
+
+    /**
+     * Gets the number of swaps that disturbed a row above the one being
+     * resolved, sending resolution back up the stack.
+     * @return the number of restarts
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Gets the number of candidate swaps considered for all impermissibles.
+     * @return the number of candidates
+     */
+    public int getCandidatesEvaluated() {
+        return candidatesEvaluated;
+    }
+
+    /**
+     * Gets the number of swaps made (the length of the pairer's list).
+     * @return the number of swaps
+     */
+    public int getSwaps() {
+        return swaps;
+    }
+
+    /**
+     * Gets the farthest any chosen swap reached in the card stack.
+     * @return the largest reach, or 0 if no swaps were made
+     */
+    public int getMaxReach() {
+        return maxReach;
+    }
+
+    /**
+     * Finds out whether resolution gave up, leaving impermissibles paired.
+     * @return true if the round was unpairable
+     */
+    public boolean isUnpairable() {
+        return unpairable;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1fus total (%.1fus sorting, %.1fus resolving), %d rows checked, "
+                + "%d restarts, %d candidates, %d swaps, max reach %d%s",
+                totalNanos / 1e3, sortNanos / 1e3, resolveNanos / 1e3, rowsChecked,
+                restarts, candidatesEvaluated, swaps, maxReach, unpairable ? ", unpairable" : "");
+    }
+
+}
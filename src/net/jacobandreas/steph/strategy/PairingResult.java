@@ -0,0 +1,52 @@
+package net.jacobandreas.steph.strategy;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * A paired round, together with the pairer's list of swaps that were made to
+ * resolve impermissibles while pairing it, and the metrics recorded while
+ * pairing it.
+ *
+ * @author jacob
+ */
+public class PairingResult {
+
+    private final Round round;
+    private final List<Swap> pairersList;
+    private final PairingMetrics metrics;
+
+    /**
+     * Creates a new pairing result with no metrics recorded.
+     * @param round the paired round
+     * @param pairersList the swaps made, in order
+     */
+    public PairingResult(Round round, List<Swap> pairersList) {
+        this(round, pairersList, new PairingMetrics());
+    }
+
+    /**
+     * Creates a new pairing result.
+     * @param round the paired round
+     * @param pairersList the swaps made, in order
+     * @param metrics the metrics recorded while pairing the round
+     */
+    public PairingResult(Round round, List<Swap> pairersList, PairingMetrics metrics) {
+        this.round = round;
+        this.pairersList = Collections.unmodifiableList(new ArrayList<Swap>(pairersList));
+        this.metrics = metrics;
+    }
+
+    public Round getRound() {
+        return round;
+    }
+
+    public List<Swap> getPairersList() {
+        return pairersList;
+    }
+
+    public PairingMetrics getMetrics() {
+        return metrics;
+    }
+
+}
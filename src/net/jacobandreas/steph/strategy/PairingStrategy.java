@@ -10,6 +10,8 @@ public interface PairingStrategy {
     public Round pair(ArrayList<Team> teams) throws TournamentStateException;
     
     public void addPairingEventListener(PairingEventListener l);
+    public void addPairingEventListener(PairingEventListener l, int... types);
+    public void removePairingEventListener(PairingEventListener l);
     public PairingEventListener[] getPairingEventListeners();
 
 }
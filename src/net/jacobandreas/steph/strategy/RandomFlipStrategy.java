@@ -1,5 +1,8 @@
 package net.jacobandreas.steph.strategy;
 
+import java.util.*;
+import net.jacobandreas.steph.random.*;
+
 /**
  * Determines the outcome of a coin flip randomly (useful for simulations).
  *
@@ -7,6 +10,24 @@ package net.jacobandreas.steph.strategy;
  */
 public class RandomFlipStrategy implements CoinFlipStrategy {
 
+    private final RandomSource random;
+
+    /**
+     * Creates a new flipper with an unpredictably seeded source.
+     */
+    public RandomFlipStrategy() {
+        this(new SplittableRandomSource());
+    }
+
+    /**
+     * Creates a new flipper.
+     * @param random the source of randomness for flips (not shared between
+     * threads)
+     */
+    public RandomFlipStrategy(RandomSource random) {
+        this.random = random;
+    }
+
     /**
      * Gets the outcome of this flip
      * @param message (not used)
@@ -15,11 +36,21 @@ public class RandomFlipStrategy implements CoinFlipStrategy {
      * @return the outcome of the flip.
      */
     public int getFlip(String message, String headsm, String tailsm) {
-        int flip = (int)(Math.random() * 2);
-        if(flip == 0) {
+        if(random.nextBoolean()) {
             return HEADS;
         }
         return TAILS;
     }
 
+    /**
+     * Shuffles the tied items (Fisher-Yates, from this flipper's source).
+     * @param message (not used)
+     * @param tied the tied items, reordered in place
+     */
+    public <T> void getDraw(String message, List<T> tied) {
+        for(int i = tied.size() - 1; i > 0; i--) {
+            Collections.swap(tied, i, random.nextInt(i + 1));
+        }
+    }
+
 }
@@ -0,0 +1,97 @@
+package net.jacobandreas.steph.strategy;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Holds the scratch results worked out while ranking one set of teams: each
+ * team's SOW rank and SOL rank. A context belongs to a single call to rank,
+ * so the teams themselves are never written to, and any number of rankings of
+ * the same teams can run at once.
+ *
+ * @author jacob
+ */
+public class RankingContext {
+
+    private TeamSlots slots;
+    private double[] sowRanks;
+    private double[] solRanks;
+
+    /**
+     * Creates a new, empty context, in which every team's SOW and SOL rank is
+     * 0.
+     */
+    public RankingContext() {
+        slots = null;
+        sowRanks = null;
+        solRanks = null;
+    }
+
+    /**
+     * Clears the context, ready to rank the given teams.
+     * @param teams the teams about to be ranked
+     */
+    void reset(List<Team> teams) {
+        slots = new TeamSlots(teams);
+        sowRanks = new double[teams.size()];
+        solRanks = new double[teams.size()];
+    }
+
+    /**
+     * Gets a team's strength of win rank (that is, the ranking of its SOW
+     * compared to other teams with the same record and CS).
+     * @param t the team to look up
+     * @return t's SOW rank, or 0 if it hasn't been ranked
+     */
+    public double getSOWRank(Team t) {
+        int slot = slots == null ? -1 : slots.slotOf(t);
+        return slot < 0 ? 0 : sowRanks[slot];
+    }
+
+    /**
+     * Gets a team's strength of loss rank (that is, the ranking of its SOL
+     * compared to other teams with the same record and CS).
+     * @param t the team to look up
+     * @return t's SOL rank, or 0 if it hasn't been ranked
+     */
+    public double getSOLRank(Team t) {
+        int slot = slots == null ? -1 : slots.slotOf(t);
+        return slot < 0 ? 0 : solRanks[slot];
+    }
+
+    /**
+     * Gets a team's strength of opposition rank.
+     * @param t the team to look up
+     * @return t's SOW rank plus its SOL rank
+     */
+    public double getSOORank(Team t) {
+        return getSOWRank(t) + getSOLRank(t);
+    }
+
+    /**
+     * Sets a team's strength of win rank.
+     * @param t one of the teams being ranked
+     * @param sowRank the SOW rank to set
+     */
+    void setSOWRank(Team t, double sowRank) {
+        sowRanks[slotOf(t)] = sowRank;
+    }
+
+    /**
+     * Sets a team's strength of loss rank.
+     * @param t one of the teams being ranked
+     * @param solRank the SOL rank to set
+     */
+    void setSOLRank(Team t, double solRank) {
+        solRanks[slotOf(t)] = solRank;
+    }
+
+    private int slotOf(Team t) {
+        int slot = slots.slotOf(t);
+        if(slot < 0) {
+            throw new IllegalArgumentException(t + " is not being ranked");
+        }
+        return slot;
+    }
+
+}
@@ -0,0 +1,94 @@
+package net.jacobandreas.steph.strategy;
+
+import java.util.*;
+
+/**
+ * Decides which row of the card stacks to check next while resolving
+ * impermissibles. Tabulators go back to the top of the stack after every
+ * swap; since a swap only changes the two rows it touches, it is enough to
+ * recheck those rows (if we've already passed them) and then carry on from
+ * where we were. Either way the topmost impermissible row is always the next
+ * one resolved, so both modes make exactly the same swaps.
+ *
+ * @author jacob
+ */
+class ResolutionCursor {
+
+    private final int rows;
+    private final int mode;
+
+    // every row above the frontier has been checked, and only the dirty ones
+    // can have changed since
+    private int frontier;
+    private final BitSet dirty;
+
+    // the row last returned by next
+    private int current;
+    // the number of swaps that disturbed a row above the current one
+    private int restarts;
+
+    /**
+     * Creates a cursor positioned at the top of the stack.
+     * @param rows the number of rows (i.e. matches) in the stack
+     * @param mode BasePairingStrategy.MANUAL_CARDS or
+     * BasePairingStrategy.WORKLIST
+     */
+    ResolutionCursor(int rows, int mode) {
+        this.rows = rows;
+        this.mode = mode;
+        frontier = 0;
+        dirty = new BitSet(rows);
+        current = -1;
+        restarts = 0;
+    }
+
+    /**
+     * Gets the next row that might be impermissible.
+     * @return the row to check, or -1 if every row has been checked
+     */
+    int next() {
+        int row = dirty.nextSetBit(0);
+        if(row >= 0) {
+            dirty.clear(row);
+        } else if(frontier < rows) {
+            row = frontier++;
+        }
+        current = row;
+        return row;
+    }
+
+    /**
+     * Records that a swap has changed the given rows.
+     * @param row1 the first row the swap touched
+     * @param row2 the second row the swap touched
+     */
+    void swapped(int row1, int row2) {
+        if(Math.min(row1, row2) < current) {
+            restarts++;
+        }
+        if(mode == BasePairingStrategy.MANUAL_CARDS) {
+            // back to the top of the stack
+            frontier = 0;
+            dirty.clear();
+            return;
+        }
+        // rows we haven't reached yet will be checked anyway
+        if(row1 < frontier) {
+            dirty.set(row1);
+        }
+        if(row2 < frontier) {
+            dirty.set(row2);
+        }
+    }
+
+    /**
+     * Gets the number of swaps that disturbed a row above the one being
+     * resolved, so that resolution had to go back up the stack for it. This
+     * is the same in both modes.
+     * @return the number of restarts so far
+     */
+    int getRestarts() {
+        return restarts;
+    }
+
+}
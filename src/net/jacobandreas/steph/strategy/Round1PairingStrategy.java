@@ -1,5 +1,7 @@
 package net.jacobandreas.steph.strategy;
 
+import net.jacobandreas.steph.jfr.*;
+import net.jacobandreas.steph.random.*;
 import net.jacobandreas.steph.tournament.*;
 import java.util.*;
 
@@ -12,6 +14,25 @@ import java.util.*;
  */
 public class Round1PairingStrategy extends BasePairingStrategy {
 
+    private final RandomSource random;
+
+    /**
+     * Creates a new Round 1 pairing strategy which draws its pairings from an
+     * unpredictably seeded source.
+     */
+    public Round1PairingStrategy() {
+        this(new SplittableRandomSource());
+    }
+
+    /**
+     * Creates a new Round 1 pairing strategy.
+     * @param random the source of randomness for drawing pairings (not shared
+     * between threads)
+     */
+    public Round1PairingStrategy(RandomSource random) {
+        this.random = random;
+    }
+
     /**
      * Creates a round, pairing the tournament teams randomly but making sure
      * to eliminate any impermissibles.
@@ -20,32 +41,37 @@ public class Round1PairingStrategy extends BasePairingStrategy {
      */
     public Round pair(ArrayList<Team> teams) {
 
+        PairRoundEvent event = new PairRoundEvent();
+        event.begin();
         Round round = new Round();
 
-        ArrayList<Team> shuffled = shuffle(teams);
+        // the top of the stack is the end of the deque, so cards can be taken
+        // off the top and put back on the bottom in constant time
+        ArrayDeque<Team> shuffled = new ArrayDeque<Team>(shuffle(teams, random));
 
-        ArrayList<Team> pis = new ArrayList<Team>(Tournament.MAX_TEAMS/2);
-        ArrayList<Team> deltas = new ArrayList<Team>(Tournament.MAX_TEAMS/2);
+        ArrayList<Team> pis = new ArrayList<Team>(teams.size() / 2);
+        ArrayList<Team> deltas = new ArrayList<Team>(teams.size() / 2);
 
         while(!shuffled.isEmpty()) {
 
-            int len = shuffled.size();
+            // Get the top two teams from the stack
+            Team team1 = shuffled.removeLast();
+            Team team2 = shuffled.removeLast();
 
-            // Get the last two teams from the stack
-            Team team1 = shuffled.remove(len - 1);
-            Team team2 = shuffled.remove(len - 2);
+            // the number of cards we can still try against team1
+            int untried = shuffled.size();
 
             // If they can't be paired against each other...
             while(!isPermitted(team1, team2)) {
-                if(len > 2) {
-                    // if we're not at the end of the stack, put one of the
-                    // cards back and try another one
-                    shuffled.add(0, team2);
-                    team2 = shuffled.remove(len - 2);
+                if(untried > 0) {
+                    // if we haven't been through the rest of the stack, put
+                    // the card back on the bottom and try the next one
+                    shuffled.addFirst(team2);
+                    team2 = shuffled.removeLast();
+                    untried--;
                 } else {
-                    // if we are at the end of the stack, look through the list
-                    // of already created pairings for a swap that will avoid
-                    // any impermissibles.
+                    // if we have, look through the list of already created
+                    // pairings for a swap that will avoid any impermissibles.
                     boolean success = false;
                     for(int i = pis.size()-1; i >= 0; i--) {
                         if(isPermitted(team2, pis.get(i))
@@ -59,7 +85,7 @@ public class Round1PairingStrategy extends BasePairingStrategy {
                     }
                     assert success : "Sanity check failed: round 1 pairing impossible.";
                     // This should never happen if there are enough teams to actually
-                    // hold a 4-round tournament
+                    // hold a tournament
                 }
             }
 
@@ -78,6 +104,7 @@ public class Round1PairingStrategy extends BasePairingStrategy {
             round.addMatch(m);
         }
 
+        recordPairRoundEvent(event, teams, new PairingMetrics());
         return round;
 
     }
@@ -1,5 +1,7 @@
 package net.jacobandreas.steph.strategy;
 
+import net.jacobandreas.steph.event.*;
+import net.jacobandreas.steph.jfr.*;
 import net.jacobandreas.steph.tournament.*;
 import java.util.*;
 
@@ -10,7 +12,37 @@ import java.util.*;
  */
 public class Round2PairingStrategy extends BasePairingStrategy {
 
+    /**
+     * Ranks swaps by desirability. It doesn't depend on the tie-break rule,
+     * so every instance shares it.
+     */
+    private static final Comparator<Swap> SWAP_COMPARATOR = new Comparator<Swap>() {
+        public int compare(Swap s1, Swap s2) {
+            // these were worked out when the swaps were proposed; differences
+            // in wins and PD are always multiples of a half, so they can be
+            // compared exactly
+            if(s1.getWinDifference() != s2.getWinDifference()) {
+                return s1.getWinDifference() < s2.getWinDifference() ? -1 : 1;
+            }
+            if(s1.getPDDifference() != s2.getPDDifference()) {
+                return s1.getPDDifference() < s2.getPDDifference() ? -1 : 1;
+            }
+            if(s1.getRankSum() != s2.getRankSum()) {
+                // higher rank sums come "first"
+                return s1.getRankSum() > s2.getRankSum() ? -1 : 1;
+            }
+            if(s1.getSide() == Match.DELTA && s2.getSide() == Match.PI) {
+                return -1;
+            } else if(s1.getSide() == Match.PI && s2.getSide() == Match.DELTA) {
+                return 1;
+            }
+            System.err.println("Sanity check failed: unable to rank swaps!");
+            return 0;
+        }
+    };
+
     private final boolean higherNumberGoesFirst;
+    private final TiebreakChain tiebreaks;
 
     /**
      * Creates a new Round2PairingStrategy with the given rule about rank
@@ -19,6 +51,10 @@ public class Round2PairingStrategy extends BasePairingStrategy {
      */
     public Round2PairingStrategy(boolean higherNumberGoesFirst) {
         this.higherNumberGoesFirst = higherNumberGoesFirst;
+        tiebreaks = new TiebreakChain()
+                .then(TiebreakChain.WINS)
+                .then(TiebreakChain.POINT_DIFFERENTIAL)
+                .thenTeamNumber(higherNumberGoesFirst);
     }
 
     /**
@@ -27,6 +63,22 @@ public class Round2PairingStrategy extends BasePairingStrategy {
      * @return a paired Round
      */
     public Round pair(ArrayList<Team> teams) {
+        return pairWithPairersList(teams).getRound();
+    }
+
+    /**
+     * Pairs the round exactly as pair does, also keeping the pairer's list and
+     * the time spent sorting and resolving.
+     * @param teams the teams to pair
+     * @return the paired round, its pairer's list and its metrics
+     */
+    @Override
+    public PairingResult pairWithPairersList(ArrayList<Team> teams) {
+
+        PairRoundEvent event = new PairRoundEvent();
+        event.begin();
+        PairingMetrics metrics = new PairingMetrics();
+        long start = System.nanoTime();
 
         Round round = new Round();
 
@@ -43,11 +95,13 @@ public class Round2PairingStrategy extends BasePairingStrategy {
             }
         }
         // sort the two stacks
-        Collections.sort(needsPi, getRound2Comparator());
-        Collections.sort(needsDelta, getRound2Comparator());
+        long sortStart = System.nanoTime();
+        tiebreaks.sort(needsPi);
+        tiebreaks.sort(needsDelta);
+        metrics.sortNanos = System.nanoTime() - sortStart;
 
         // resolve impermissibles
-        sideConstrainedResolveImpermissibles(needsPi, needsDelta);
+        List<Swap> swaps = sideConstrainedResolveImpermissibles(needsPi, needsDelta, metrics);
 
         // double-check our pairings and add them to the round
         for(int i = 0; i < needsPi.size(); i++) {
@@ -59,7 +113,10 @@ public class Round2PairingStrategy extends BasePairingStrategy {
             round.addMatch(m);
         }
 
-        return round;
+        metrics.totalNanos = System.nanoTime() - start;
+        recordPairRoundEvent(event, teams, metrics);
+        reportPairingEvent(PairingEvent.PAIRED, swaps, metrics);
+        return new PairingResult(round, swaps, metrics);
 
     }
 
@@ -69,61 +126,25 @@ public class Round2PairingStrategy extends BasePairingStrategy {
      * @return a comparator to order swaps
      */
     public Comparator<Swap> swapComparator() {
-        return new Comparator<Swap>() {
-            public int compare(Swap s1, Swap s2) {
-                double winDD = s1.getWinDifference() - s2.getWinDifference();
-                //i.e. Win-Difference-Difference
-                if(Math.abs(winDD) > TOLERANCE) {
-                    return (int) Math.signum(winDD);
-                }
-                double pdDD = s1.getPDDifference() - s2.getPDDifference();
-                //i.e. Point-Differential-Difference-Difference
-                if(Math.abs(pdDD) > TOLERANCE) {
-                    return (int) Math.signum(pdDD);
-                }
-                int rankSumD = s1.getRankSum() - s2.getRankSum();
-                if(Math.abs(rankSumD) > TOLERANCE) { // but these are ints
-                    return (int) -Math.signum(rankSumD);
-                    // higher rank sums come "first"
-                }
-                if(s1.getSide() == Match.DELTA && s2.getSide() == Match.PI) {
-                    return -1;
-                } else if(s1.getSide() == Match.PI && s2.getSide() == Match.DELTA) {
-                    return 1;
-                } else {
-                    System.err.println("Sanity check failed: unable to rank swaps!");
-                    return 0;
-                }
-            }
-        };
+        return SWAP_COMPARATOR;
     }
 
     /**
-     * Gets a comparator to determine round rankings. We order teams by their
-     * win record, then by their point differential (skipping CS).
-     * @return a comparator to order teams in the card stack
+     * Gets the tiebreakers that determine round rankings. We order teams by
+     * their win record, then by their point differential (skipping CS).
+     * @return the tiebreakers used to order teams in the card stack
      */
-    public Comparator<Team> getRound2Comparator() {
-        return new Comparator<Team>() {
-
-            public int compare(Team t1, Team t2) {
-                double winD = t2.getWins() - t1.getWins();
-                if(Math.abs(winD) > TOLERANCE) {
-                    return (int) Math.signum(winD);
-                }
-                double pD = t2.getPointDifferential() - t1.getPointDifferential();
-                if(Math.abs(pD) > TOLERANCE) {
-                    return (int) Math.signum(pD);
-                }
-                if(higherNumberGoesFirst) {
-                    return t2.getNumber() - t1.getNumber();
-                } else {
-                    return t1.getNumber() - t2.getNumber();
-                }
-            }
+    public TiebreakChain getRound2Tiebreaks() {
+        return tiebreaks;
+    }
 
-        };
+    public boolean isHigherNumberGoesFirst() {
+        return higherNumberGoesFirst;
     }
 
+    @Override
+    public String getConventions() {
+        return higherNumberGoesFirst ? "higher number first" : "lower number first";
+    }
 
 }
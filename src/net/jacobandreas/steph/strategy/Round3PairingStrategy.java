@@ -1,5 +1,7 @@
 package net.jacobandreas.steph.strategy;
 
+import net.jacobandreas.steph.event.*;
+import net.jacobandreas.steph.jfr.*;
 import net.jacobandreas.steph.tournament.*;
 import java.util.*;
 
@@ -11,8 +13,40 @@ import java.util.*;
  */
 public class Round3PairingStrategy extends BasePairingStrategy {
 
+    /**
+     * Ranks swaps by closeness of record, then CS, then PD.
+     */
+    private static final Comparator<Swap> SWAP_COMPARATOR = new Comparator<Swap>() {
+        public int compare(Swap s1, Swap s2) {
+            if(s1.getWinDifference() != s2.getWinDifference()) {
+                return s1.getWinDifference() < s2.getWinDifference() ? -1 : 1;
+            }
+            if(s1.getCSDifference() != s2.getCSDifference()) {
+                return s1.getCSDifference() < s2.getCSDifference() ? -1 : 1;
+            }
+            if(s1.getPDDifference() != s2.getPDDifference()) {
+                return s1.getPDDifference() < s2.getPDDifference() ? -1 : 1;
+            }
+            if(s1.getRankSum() != s2.getRankSum()) {
+                // higher rank sums come "first"
+                return s1.getRankSum() > s2.getRankSum() ? -1 : 1;
+            }
+            if(s1.getSide() == Match.DELTA && s2.getSide() == Match.PI) {
+                return -1;
+            } else if(s1.getSide() == Match.PI && s2.getSide() == Match.DELTA) {
+                return 1;
+            }
+            assert false : "Sanity check failed: unable to rank swaps (3)";
+            return 0;
+        }
+    };
+
     private final boolean higherNumberComesFirst, piInLeftColumn;
 
+    // orders the card stack, using CS as the first-level tiebreaker and PD as
+    // the second
+    private final TiebreakChain tiebreaks;
+
     /**
      * Creates a new Round3PairingStrategy, with the given preferences about
      * team ordering and the pi column
@@ -22,6 +56,11 @@ public class Round3PairingStrategy extends BasePairingStrategy {
     public Round3PairingStrategy(boolean higherNumberComesFirst, boolean piInLeftColumn) {
         this.higherNumberComesFirst = higherNumberComesFirst;
         this.piInLeftColumn = piInLeftColumn;
+        tiebreaks = new TiebreakChain()
+                .then(TiebreakChain.WINS)
+                .then(TiebreakChain.COMBINED_STRENGTH)
+                .then(TiebreakChain.POINT_DIFFERENTIAL)
+                .thenTeamNumber(higherNumberComesFirst);
     }
 
     /**
@@ -30,19 +69,38 @@ public class Round3PairingStrategy extends BasePairingStrategy {
      * @return A paired round
      */
     public Round pair(ArrayList<Team> teams) {
+        return pairWithPairersList(teams).getRound();
+    }
+
+    /**
+     * Pairs the round exactly as pair does, also keeping the pairer's list and
+     * the time spent sorting and resolving.
+     * @param teams the teams to pair
+     * @return the paired round, its pairer's list and its metrics
+     */
+    @Override
+    public PairingResult pairWithPairersList(ArrayList<Team> teams) {
+
+        PairRoundEvent event = new PairRoundEvent();
+        event.begin();
+        PairingMetrics metrics = new PairingMetrics();
+        long start = System.nanoTime();
 
         Round round = new Round();
 
-        // sort the stack
-        Collections.sort(teams, getRound3Comparator());
+        // sort the stack (a copy, so the caller's list is left alone)
+        ArrayList<Team> stack = new ArrayList<Team>(teams);
+        long sortStart = System.nanoTime();
+        tiebreaks.sort(stack);
+        metrics.sortNanos = System.nanoTime() - sortStart;
 
         // resolve impermissibles
-        resolveImpermissibles(teams);
+        List<Swap> swaps = resolveImpermissibles(stack, metrics);
 
         // double check our pairings, and add them to the round
-        for(int i = 0; i < teams.size()-1; i += 2) {
-            Team t1 = teams.get(i);
-            Team t2 = teams.get(i+1);
+        for(int i = 0; i < stack.size()-1; i += 2) {
+            Team t1 = stack.get(i);
+            Team t2 = stack.get(i+1);
             assert isPermitted(t1, t2) :
                "Sanity check failed: impermissibles paired (3)";
             Match m;
@@ -54,7 +112,10 @@ public class Round3PairingStrategy extends BasePairingStrategy {
             round.addMatch(m);
         }
 
-        return round;
+        metrics.totalNanos = System.nanoTime() - start;
+        recordPairRoundEvent(event, teams, metrics);
+        reportPairingEvent(PairingEvent.PAIRED, swaps, metrics);
+        return new PairingResult(round, swaps, metrics);
 
     }
 
@@ -64,68 +125,21 @@ public class Round3PairingStrategy extends BasePairingStrategy {
      * @return a swap comparator
      */
     public Comparator<Swap> swapComparator() {
-        return new Comparator<Swap>() {
-            public int compare(Swap s1, Swap s2) {
-                double winDD = s1.getWinDifference() - s2.getWinDifference();
-                //i.e. Win-Difference-Difference
-                if(Math.abs(winDD) > TOLERANCE) {
-                    return (int) Math.signum(winDD);
-                }
-                double csDD = s1.getCSDifference() - s2.getCSDifference();
-                if(Math.abs(csDD) > TOLERANCE) {
-                    return (int) Math.signum(csDD);
-                }
-                double pdDD = s1.getPDDifference() - s2.getPDDifference();
-                //i.e. Point-Differential-Difference-Difference
-                if(Math.abs(pdDD) > TOLERANCE) {
-                    return (int) Math.signum(pdDD);
-                }
-                int rankSumD = s1.getRankSum() - s2.getRankSum();
-                if(Math.abs(rankSumD) > TOLERANCE) { // but these are ints
-                    return (int) -Math.signum(rankSumD);
-                    // higher rank sums come "first"
-                }
-                if(s1.getSide() == Match.DELTA && s2.getSide() == Match.PI) {
-                    return -1;
-                } else if(s1.getSide() == Match.PI && s2.getSide() == Match.DELTA) {
-                    return 1;
-                }
-                assert false : "Sanity check failed: unable to rank swaps (3)";
-                return 0;
-            }
-        };
+        return SWAP_COMPARATOR;
     }
 
-    /**
-     * Gets a comparator to order teams in the card stack, using CS as the first-
-     * level tiebreaker and PD as the second.
-     * @return a team comparator for the card stack
-     */
-    private Comparator<Team> getRound3Comparator() {
-        return new Comparator<Team>() {
-
-            public int compare(Team t1, Team t2) {
-                double winD = t2.getWins() - t1.getWins();
-                if(Math.abs(winD) > TOLERANCE) {
-                    return (int) Math.signum(winD);
-                }
-                double cs = t2.getCombinedStrength() - t1.getCombinedStrength();
-                if(Math.abs(cs) > TOLERANCE) {
-                    return (int) Math.signum(cs);
-                }
-                double pD = t2.getPointDifferential() - t1.getPointDifferential();
-                if(Math.abs(pD) > TOLERANCE) {
-                    return (int) Math.signum(pD);
-                }
-                if(higherNumberComesFirst) {
-                    return t2.getNumber() - t1.getNumber();
-                } else {
-                    return t1.getNumber() - t2.getNumber();
-                }
-            }
+    public boolean isHigherNumberComesFirst() {
+        return higherNumberComesFirst;
+    }
 
-        };
+    public boolean isPiInLeftColumn() {
+        return piInLeftColumn;
     }
 
+    @Override
+    public String getConventions() {
+        return (higherNumberComesFirst ? "higher number first" : "lower number first")
+                + (piInLeftColumn ? ", pros/plaintiff in left column" : ", pros/plaintiff in right column");
+    }
 
 }
@@ -1,5 +1,7 @@
 package net.jacobandreas.steph.strategy;
 
+import net.jacobandreas.steph.event.*;
+import net.jacobandreas.steph.jfr.*;
 import net.jacobandreas.steph.tournament.*;
 import java.util.*;
 
@@ -11,7 +13,36 @@ import java.util.*;
  */
 public class Round4NationalsPairingStrategy extends BasePairingStrategy {
 
+    /**
+     * Ranks candidate swaps by closeness (shared by all instances).
+     */
+    private static final Comparator<Swap> SWAP_COMPARATOR = new Comparator<Swap>() {
+        public int compare(Swap s1, Swap s2) {
+            if(s1.getWinDifference() != s2.getWinDifference()) {
+                return s1.getWinDifference() < s2.getWinDifference() ? -1 : 1;
+            }
+            if(s1.getCSDifference() != s2.getCSDifference()) {
+                return s1.getCSDifference() < s2.getCSDifference() ? -1 : 1;
+            }
+            if(s1.getPDDifference() != s2.getPDDifference()) {
+                return s1.getPDDifference() < s2.getPDDifference() ? -1 : 1;
+            }
+            if(s1.getRankSum() != s2.getRankSum()) {
+                // higher rank sums come "first"
+                return s1.getRankSum() > s2.getRankSum() ? -1 : 1;
+            }
+            if(s1.getSide() == Match.DELTA && s2.getSide() == Match.PI) {
+                return -1;
+            } else if(s1.getSide() == Match.PI && s2.getSide() == Match.DELTA) {
+                return 1;
+            }
+            System.err.println("Sanity check failed: unable to rank swaps!");
+            return 0;
+        }
+    };
+
     private boolean higherNumberGoesFirst;
+    private final TiebreakChain tiebreaks;
 
     /**
      * Creates a new Round4NationalsPairingStrategy with the given preference
@@ -20,6 +51,11 @@ public class Round4NationalsPairingStrategy extends BasePairingStrategy {
      */
     public Round4NationalsPairingStrategy(boolean higherNumberGoesFirst) {
         this.higherNumberGoesFirst = higherNumberGoesFirst;
+        tiebreaks = new TiebreakChain()
+                .then(TiebreakChain.WINS)
+                .then(TiebreakChain.COMBINED_STRENGTH)
+                .then(TiebreakChain.POINT_DIFFERENTIAL)
+                .thenTeamNumber(higherNumberGoesFirst);
     }
 
     /**
@@ -30,6 +66,22 @@ public class Round4NationalsPairingStrategy extends BasePairingStrategy {
      * @return The paired Round
      */
     public Round pair(ArrayList<Team> teams) {
+        return pairWithPairersList(teams).getRound();
+    }
+
+    /**
+     * Pairs the round exactly as pair does, also keeping the pairer's list and
+     * the time spent sorting and resolving.
+     * @param teams the teams to pair
+     * @return the paired round, its pairer's list and its metrics
+     */
+    @Override
+    public PairingResult pairWithPairersList(ArrayList<Team> teams) {
+
+        PairRoundEvent event = new PairRoundEvent();
+        event.begin();
+        PairingMetrics metrics = new PairingMetrics();
+        long start = System.nanoTime();
 
         Round round = new Round();
 
@@ -49,13 +101,15 @@ public class Round4NationalsPairingStrategy extends BasePairingStrategy {
         }
 
         // sort the stacks
-        Collections.sort(needsPi, getRound4Comparator());
-        Collections.sort(needsDelta, getRound4Comparator());
+        long sortStart = System.nanoTime();
+        tiebreaks.sort(needsPi);
+        tiebreaks.sort(needsDelta);
+        metrics.sortNanos = System.nanoTime() - sortStart;
 
         // resolve impermissibles
-        List<Swap> swaps = sideConstrainedResolveImpermissibles(needsPi, needsDelta);
-        if(swaps.size() >= 25) {
-            reportPairingEvent("25 swaps", swaps);
+        List<Swap> swaps = sideConstrainedResolveImpermissibles(needsPi, needsDelta, metrics);
+        if(swaps.size() >= PairingEvent.LONG_PAIRERS_LIST_LENGTH) {
+            reportPairingEvent(PairingEvent.LONG_PAIRERS_LIST, swaps, metrics);
         }
 
         // double check our pairings and add them to the round
@@ -69,7 +123,10 @@ public class Round4NationalsPairingStrategy extends BasePairingStrategy {
             round.addMatch(m);
         }
 
-        return round;
+        metrics.totalNanos = System.nanoTime() - start;
+        recordPairRoundEvent(event, teams, metrics);
+        reportPairingEvent(PairingEvent.PAIRED, swaps, metrics);
+        return new PairingResult(round, swaps, metrics);
 
     }
 
@@ -78,69 +135,25 @@ public class Round4NationalsPairingStrategy extends BasePairingStrategy {
      * @return the swap comparator
      */
     public Comparator<Swap> swapComparator() {
-        return new Comparator<Swap>() {
-            public int compare(Swap s1, Swap s2) {
-                double winDD = s1.getWinDifference() - s2.getWinDifference();
-                //i.e. Win-Difference-Difference
-                if(Math.abs(winDD) > TOLERANCE) {
-                    return (int) Math.signum(winDD);
-                }
-                double csDD = s1.getCSDifference() - s2.getCSDifference();
-                if(Math.abs(csDD) > TOLERANCE) {
-                    return (int) Math.signum(csDD);
-                }
-                double pdDD = s1.getPDDifference() - s2.getPDDifference();
-                //i.e. Point-Differential-Difference-Difference
-                if(Math.abs(pdDD) > TOLERANCE) {
-                    return (int) Math.signum(pdDD);
-                }
-                int rankSumD = s1.getRankSum() - s2.getRankSum();
-                if(Math.abs(rankSumD) > TOLERANCE) { // but these are ints
-                    return (int) -Math.signum(rankSumD);
-                    // higher rank sums come "first"
-                }
-                if(s1.getSide() == Match.DELTA && s2.getSide() == Match.PI) {
-                    return -1;
-                } else if(s1.getSide() == Match.PI && s2.getSide() == Match.DELTA) {
-                    return 1;
-                } else {
-                    System.err.println("Sanity check failed: unable to rank swaps!");
-                    return 0;
-                }
-            }
-        };
+        return SWAP_COMPARATOR;
     }
 
     /**
-     * Gets a comparator to rank teams for their position in the card stack, using
-     * record, then cs, then pd.
-     * @return a team comparator
+     * Gets the tiebreakers that rank teams for their position in the card
+     * stack: record, then cs, then pd.
+     * @return the tiebreak chain
      */
-    public Comparator<Team> getRound4Comparator() {
-        return new Comparator<Team>() {
-
-            public int compare(Team t1, Team t2) {
-                double winD = t2.getWins() - t1.getWins();
-                if(Math.abs(winD) > TOLERANCE) {
-                    return (int) Math.signum(winD);
-                }
-                double csD = t2.getCombinedStrength() - t1.getCombinedStrength();
-                if(Math.abs(csD) > TOLERANCE) {
-                    return (int) Math.signum(csD);
-                }
-                double pD = t2.getPointDifferential() - t1.getPointDifferential();
-                if(Math.abs(pD) > TOLERANCE) {
-                    return (int) Math.signum(pD);
-                }
-                if(higherNumberGoesFirst) {
-                    return t2.getNumber() - t1.getNumber();
-                } else {
-                    return t1.getNumber() - t2.getNumber();
-                }
-            }
+    public TiebreakChain getRound4Tiebreaks() {
+        return tiebreaks;
+    }
 
-        };
+    public boolean isHigherNumberGoesFirst() {
+        return higherNumberGoesFirst;
     }
 
+    @Override
+    public String getConventions() {
+        return higherNumberGoesFirst ? "higher number first" : "lower number first";
+    }
 
 }
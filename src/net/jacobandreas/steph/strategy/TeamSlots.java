@@ -0,0 +1,94 @@
+package net.jacobandreas.steph.strategy;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * Numbers a fixed set of teams 0, 1, 2, ... so that scratch values for them
+ * can be kept in plain arrays. Teams from a single tournament are looked up
+ * by their index in it, which needs no hashing; any other mix of teams falls
+ * back on an identity map.
+ *
+ * @author jacob
+ */
+class TeamSlots {
+
+    private final Team[] teams;
+
+    // slotByIndex[i] is the slot of the team with index i, or -1; null if the
+    // teams' indexes can't be used
+    private final int[] slotByIndex;
+    private final IdentityHashMap<Team, Integer> slotByTeam;
+
+    /**
+     * Numbers the given teams in order.
+     * @param teams the teams, each of which must appear only once
+     */
+    TeamSlots(List<Team> teams) {
+        this.teams = teams.toArray(new Team[teams.size()]);
+
+        int maxIndex = -1;
+        boolean usable = true;
+        for(Team t : this.teams) {
+            if(t.getIndex() < 0) {
+                usable = false;
+                break;
+            }
+            maxIndex = Math.max(maxIndex, t.getIndex());
+        }
+
+        int[] byIndex = null;
+        if(usable) {
+            byIndex = new int[maxIndex + 1];
+            Arrays.fill(byIndex, -1);
+            for(int slot = 0; slot < this.teams.length; slot++) {
+                int index = this.teams[slot].getIndex();
+                if(byIndex[index] >= 0) {
+                    // teams from different tournaments
+                    byIndex = null;
+                    break;
+                }
+                byIndex[index] = slot;
+            }
+        }
+
+        if(byIndex != null) {
+            slotByIndex = byIndex;
+            slotByTeam = null;
+        } else {
+            slotByIndex = null;
+            slotByTeam = new IdentityHashMap<Team, Integer>(2 * this.teams.length);
+            for(int slot = 0; slot < this.teams.length; slot++) {
+                slotByTeam.put(this.teams[slot], slot);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of teams.
+     * @return the number of slots
+     */
+    int size() {
+        return teams.length;
+    }
+
+    /**
+     * Gets a team's slot.
+     * @param t the team to look up
+     * @return t's slot, or -1 if t isn't one of the teams
+     */
+    int slotOf(Team t) {
+        if(slotByIndex == null) {
+            Integer slot = slotByTeam.get(t);
+            return slot == null ? -1 : slot;
+        }
+        int index = t.getIndex();
+        if(index < 0 || index >= slotByIndex.length) {
+            return -1;
+        }
+        int slot = slotByIndex[index];
+        // a team from another tournament can share an index with one of ours
+        return slot >= 0 && teams[slot] == t ? slot : -1;
+    }
+
+}
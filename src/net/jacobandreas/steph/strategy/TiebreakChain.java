@@ -0,0 +1,244 @@
+package net.jacobandreas.steph.strategy;
+
+import net.jacobandreas.steph.tournament.*;
+import java.util.*;
+
+/**
+ * A declarative list of tiebreakers for ordering teams, e.g. "wins, then CS,
+ * then PD, then higher team number". Each tiebreaker puts the team with the
+ * higher value first, except team number, which can go either way.
+ *
+ * To sort, the chain works out every team's value for every tiebreaker once,
+ * and then orders the teams with a stable primitive sort on the first
+ * tiebreaker, breaking ties by sorting each tied group on the next one, so no
+ * Team methods are called while comparing. Wins, CS
+ * and SOO rank are always multiples of a half, so they are compared exactly.
+ *
+ * @author jacob
+ */
+public class TiebreakChain {
+
+    /**
+     * Ballots won (ties count as half).
+     */
+    public static final int WINS = 1;
+    /**
+     * Combined strength.
+     */
+    public static final int COMBINED_STRENGTH = 2;
+    /**
+     * Strength of opposition rank (SOW rank plus SOL rank), as recorded in the
+     * RankingContext the teams are sorted with.
+     */
+    public static final int SOO_RANK = 3;
+    /**
+     * Point differential, possibly dropping high and low ballots.
+     */
+    public static final int POINT_DIFFERENTIAL = 4;
+    /**
+     * Raw points, possibly dropping high and low ballots.
+     */
+    public static final int POINTS = 5;
+    /**
+     * Team number (higher or lower first, as requested).
+     */
+    public static final int TEAM_NUMBER = 6;
+
+    private final int[] criteria;
+    // for PD and points, the number of ballots to drop from each end; for
+    // team number, 1 if higher numbers come first and 0 otherwise
+    private final int[] params;
+
+    /**
+     * Creates an empty chain, which leaves teams in their original order.
+     */
+    public TiebreakChain() {
+        this(new int[0], new int[0]);
+    }
+
+    private TiebreakChain(int[] criteria, int[] params) {
+        this.criteria = criteria;
+        this.params = params;
+    }
+
+    /**
+     * Gets a new chain which uses the given tiebreaker after all of this
+     * chain's.
+     * @param criterion WINS, COMBINED_STRENGTH, SOO_RANK, POINT_DIFFERENTIAL or
+     * POINTS
+     * @return the extended chain
+     */
+    public TiebreakChain then(int criterion) {
+        if(criterion == TEAM_NUMBER) {
+            throw new IllegalArgumentException("Use thenTeamNumber to break ties by team number");
+        }
+        return extend(criterion, 0);
+    }
+
+    /**
+     * Gets a new chain which uses PD or points, dropping the given number of
+     * high and low ballots, after all of this chain's tiebreakers.
+     * @param criterion POINT_DIFFERENTIAL or POINTS
+     * @param drop the number of ballots to drop from each end
+     * @return the extended chain
+     */
+    public TiebreakChain thenDropping(int criterion, int drop) {
+        if(criterion != POINT_DIFFERENTIAL && criterion != POINTS) {
+            throw new IllegalArgumentException("Only PD and points can drop ballots");
+        }
+        return extend(criterion, drop);
+    }
+
+    /**
+     * Gets a new chain which breaks any remaining ties by team number.
+     * @param higherFirst true if the higher-numbered team should come first
+     * @return the extended chain
+     */
+    public TiebreakChain thenTeamNumber(boolean higherFirst) {
+        return extend(TEAM_NUMBER, higherFirst ? 1 : 0);
+    }
+
+    private TiebreakChain extend(int criterion, int param) {
+        if(criterion < WINS || criterion > TEAM_NUMBER) {
+            throw new IllegalArgumentException("Unknown tiebreaker " + criterion);
+        }
+        int[] newCriteria = Arrays.copyOf(criteria, criteria.length + 1);
+        int[] newParams = Arrays.copyOf(params, params.length + 1);
+        newCriteria[criteria.length] = criterion;
+        newParams[params.length] = param;
+        return new TiebreakChain(newCriteria, newParams);
+    }
+
+    /**
+     * Sorts the given teams according to this chain. The sort is stable, so
+     * teams tied on every tiebreaker keep their original order.
+     * @param teams the teams to sort
+     * @return for each position in the sorted list, whether that team is tied
+     * with the one before it on every tiebreaker
+     */
+    public boolean[] sort(List<Team> teams) {
+        return sort(teams, null);
+    }
+
+    /**
+     * Sorts the given teams according to this chain, looking up SOO ranks in
+     * the given context. The sort is stable, so teams tied on every tiebreaker
+     * keep their original order.
+     * @param teams the teams to sort
+     * @param context the teams' SOW and SOL ranks (only needed if this chain
+     * uses SOO_RANK)
+     * @return for each position in the sorted list, whether that team is tied
+     * with the one before it on every tiebreaker
+     */
+    public boolean[] sort(List<Team> teams, RankingContext context) {
+        int n = teams.size();
+        Team[] cards = teams.toArray(new Team[n]);
+
+        int[][] keys = new int[criteria.length][];
+        for(int c = 0; c < criteria.length; c++) {
+            keys[c] = compile(c, cards, context);
+        }
+
+        // order[i] is the team in position i
+        int[] order = new int[n];
+        for(int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+
+        if(criteria.length > 0) {
+            refine(keys, 0, order, 0, n, new long[n], new int[n]);
+        }
+
+        boolean[] tiedWithPrevious = new boolean[n];
+        for(int i = 0; i < n; i++) {
+            teams.set(i, cards[order[i]]);
+            if(i > 0) {
+                tiedWithPrevious[i] = true;
+                for(int[] key : keys) {
+                    if(key[order[i]] != key[order[i - 1]]) {
+                        tiedWithPrevious[i] = false;
+                        break;
+                    }
+                }
+            }
+        }
+        return tiedWithPrevious;
+    }
+
+    /**
+     * Sorts part of the order on one tiebreaker, and then each run of teams
+     * still tied on it on the next tiebreaker, and so on. Most teams are
+     * separated by the first tiebreaker or two, so the later ones only sort
+     * small groups. Each sort is stable (the current position is packed into
+     * the low bits), so the result is the same as sorting on every
+     * tiebreaker in turn, least important first.
+     * @param keys every team's value for every tiebreaker
+     * @param c the index of the tiebreaker to sort on
+     * @param order the team in each position, rearranged in place
+     * @param from the first position to sort
+     * @param to one past the last position to sort
+     * @param packed working space as long as order
+     * @param scratch working space as long as order
+     */
+    private static void refine(int[][] keys, int c, int[] order, int from, int to,
+            long[] packed, int[] scratch) {
+        int[] key = keys[c];
+        for(int i = from; i < to; i++) {
+            // negate so that higher values sort first
+            packed[i] = ((long) -key[order[i]] << 32) | (i - from);
+            scratch[i] = order[i];
+        }
+        Arrays.sort(packed, from, to);
+        for(int i = from; i < to; i++) {
+            order[i] = scratch[from + (int) packed[i]];
+        }
+        if(c + 1 == keys.length) {
+            return;
+        }
+        int start = from;
+        for(int i = from + 1; i <= to; i++) {
+            if(i == to || key[order[i]] != key[order[start]]) {
+                if(i - start > 1) {
+                    refine(keys, c + 1, order, start, i, packed, scratch);
+                }
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * Works out every team's value for one of the tiebreakers in this chain.
+     * @param c the index of the tiebreaker in the chain
+     * @param cards the teams
+     * @param context the teams' SOW and SOL ranks, if any
+     * @return the teams' values, where higher values come first
+     */
+    private int[] compile(int c, Team[] cards, RankingContext context) {
+        if(criteria[c] == SOO_RANK && context == null) {
+            throw new IllegalStateException("Sorting by SOO rank needs a RankingContext");
+        }
+        int[] key = new int[cards.length];
+        for(int i = 0; i < cards.length; i++) {
+            Team t = cards[i];
+            switch(criteria[c]) {
+                case WINS: key[i] = halves(t.getWins()); break;
+                case COMBINED_STRENGTH: key[i] = halves(t.getCombinedStrength()); break;
+                case SOO_RANK: key[i] = halves(context.getSOORank(t)); break;
+                case POINT_DIFFERENTIAL: key[i] = t.getPointDifferentialDropping(params[c]); break;
+                case POINTS: key[i] = t.getPointsDropping(params[c]); break;
+                default: key[i] = params[c] == 1 ? t.getNumber() : -t.getNumber();
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Converts a value that is always a multiple of a half to an exact integer.
+     * @param value the value to convert
+     * @return twice the value
+     */
+    private static int halves(double value) {
+        return (int) Math.round(value * 2);
+    }
+
+}
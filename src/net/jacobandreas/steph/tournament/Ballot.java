@@ -17,7 +17,7 @@ public class Ballot {
      * @param piTotal
      * @param deltaTotal
      */
-    public Ballot(Team piTeam, Team deltaTeam, Integer piTotal, Integer deltaTotal) {
+    public Ballot(Team piTeam, Team deltaTeam, int piTotal, int deltaTotal) {
         this.piTeam = piTeam;
         this.deltaTeam = deltaTeam;
         this.piTotal = piTotal;
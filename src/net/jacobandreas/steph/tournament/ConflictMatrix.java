@@ -0,0 +1,179 @@
+package net.jacobandreas.steph.tournament;
+
+import java.util.*;
+
+/**
+ * A dense bit matrix recording, for every pair of teams in a tournament,
+ * whether the first is forbidden from hitting the second (because they are
+ * from the same program, or have already met). Each team is identified by
+ * its index in the tournament, so checking a match is a single bit test.
+ *
+ * Teams keep the matrix up to date as programs and ballots are added and
+ * removed. When new teams are added the matrix is rebuilt from scratch the
+ * next time it is consulted. Several threads may consult the matrix at once
+ * (e.g. to pair the same tournament in different ways), as long as no team
+ * changes meanwhile.
+ *
+ * A tournament forked from a snapshot starts with the snapshot's rows, and
+ * only copies them the first time one of its teams changes.
+ *
+ * A team added to another tournament afterwards leaves this matrix: its
+ * index now belongs to the other tournament, so its row here is no longer
+ * kept, and checks involving it fall back on the team's own lists.
+ *
+ * @author jacob
+ */
+class ConflictMatrix {
+
+    private ArrayList<Team> teams;
+
+    // row i holds the teams team i can't hit, rowWords longs per row
+    private long[] bits;
+    private int rowWords;
+
+    // true while bits belongs to a snapshot, which must not be modified
+    private boolean shared;
+
+    // written last when rebuilding, so that any thread which sees it cleared
+    // also sees the rebuilt rows
+    private volatile boolean stale;
+
+    /**
+     * Creates a new, empty conflict matrix.
+     */
+    ConflictMatrix() {
+        teams = new ArrayList<Team>();
+        bits = new long[0];
+        rowWords = 0;
+        shared = false;
+        stale = false;
+    }
+
+    /**
+     * Creates a conflict matrix for a fork of a snapshot, whose teams will all
+     * be adopted in index order.
+     * @param bits the snapshot's rows, which are not modified
+     * @param rowWords the number of longs in each row
+     */
+    ConflictMatrix(long[] bits, int rowWords) {
+        teams = new ArrayList<Team>();
+        this.bits = bits;
+        this.rowWords = rowWords;
+        shared = true;
+        stale = false;
+    }
+
+    /**
+     * Adds a team to the matrix.
+     * @param t the team to add
+     * @return the index assigned to t
+     */
+    int addTeam(Team t) {
+        teams.add(t);
+        stale = true;
+        return teams.size() - 1;
+    }
+
+    /**
+     * Adds a team whose row is already in the matrix (i.e. a team forked from
+     * a snapshot, in index order).
+     * @param t the team to add
+     * @return the index assigned to t
+     */
+    int adoptTeam(Team t) {
+        teams.add(t);
+        return teams.size() - 1;
+    }
+
+    /**
+     * Determines whether one team is forbidden from hitting another.
+     * @param from the index of the team doing the hitting
+     * @param to the index of the team being hit
+     * @return true if team from can't hit team to
+     */
+    boolean forbids(int from, int to) {
+        if(stale) {
+            rebuild();
+        }
+        return (bits[from * rowWords + (to >>> 6)] & (1L << to)) != 0;
+    }
+
+    /**
+     * Records whether one team is forbidden from hitting another.
+     * @param from the index of the team doing the hitting
+     * @param to the index of the team being hit
+     * @param forbidden true if team from can't hit team to
+     */
+    void set(int from, int to, boolean forbidden) {
+        if(stale) {
+            // this will be picked up when the matrix is rebuilt
+            return;
+        }
+        if(shared) {
+            bits = bits.clone();
+            shared = false;
+        }
+        if(forbidden) {
+            bits[from * rowWords + (to >>> 6)] |= 1L << to;
+        } else {
+            bits[from * rowWords + (to >>> 6)] &= ~(1L << to);
+        }
+    }
+
+    /**
+     * Gets a copy of every row of the matrix, for a snapshot.
+     * @return the rows, rowWords longs per row
+     */
+    long[] copyBits() {
+        if(stale) {
+            rebuild();
+        }
+        return bits.clone();
+    }
+
+    /**
+     * Gets the number of longs in each row of the matrix.
+     * @return the row length
+     */
+    int getRowWords() {
+        if(stale) {
+            rebuild();
+        }
+        return rowWords;
+    }
+
+    /**
+     * Recomputes every row of the matrix from the teams' programs and
+     * histories.
+     */
+    private synchronized void rebuild() {
+        if(!stale) {
+            // another thread got here first
+            return;
+        }
+        int newRowWords = (teams.size() + 63) >>> 6;
+        long[] newBits = new long[teams.size() * newRowWords];
+        for(Team t : teams) {
+            if(!t.belongsTo(this)) {
+                // moved on to another tournament's matrix
+                continue;
+            }
+            int row = t.getIndex() * newRowWords;
+            for(Team p : t.getProgram()) {
+                if(p.belongsTo(this)) {
+                    newBits[row + (p.getIndex() >>> 6)] |= 1L << p.getIndex();
+                }
+            }
+            for(Team opp : t.getOpponents()) {
+                if(opp.belongsTo(this)) {
+                    newBits[row + (opp.getIndex() >>> 6)] |= 1L << opp.getIndex();
+                }
+            }
+        }
+        rowWords = newRowWords;
+        bits = newBits;
+        shared = false;
+        stale = false;
+    }
+
+}
@@ -144,6 +144,31 @@ public class Match {
 
     }
 
+    /**
+     * Takes each of this match's ballots back out of its teams' histories (in
+     * the reverse of the order they were added), and set played to false. The
+     * ballots stay in the match, so it can be rescored and played again.
+     */
+    public void unplay() {
+
+        for(int i = ballots.size() - 1; i >= 0; i--) {
+            Ballot ballot = ballots.get(i);
+            delta.removeBallot(ballot);
+            pi.removeBallot(ballot);
+        }
+
+        played = false;
+
+    }
+
+    /**
+     * Marks this match as played without adding its ballots to its teams'
+     * histories (for restoring a match whose ballots are already there).
+     */
+    void markPlayed() {
+        played = true;
+    }
+
     public boolean isPlayed() {
         return played;
     }
@@ -2,6 +2,7 @@ package net.jacobandreas.steph.tournament;
 
 import java.util.*;
 import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.jfr.*;
 
 /**
  * Represents one round of a Tournament.
@@ -20,7 +21,7 @@ public class Round {
      */
     public Round() {
         pairingLocked = false;
-        matches = new ArrayList<Match>(Tournament.MAX_TEAMS);
+        matches = new ArrayList<Match>();
         played = false;
     }
 
@@ -77,10 +78,38 @@ public class Round {
      * Plays each of the round's matches in turn
      */
     public void play() {
+        PlayRoundEvent event = new PlayRoundEvent();
+        event.begin();
+        int number = matches.isEmpty() ? 1 : matches.get(0).getPi().getNumRoundsPlayed() + 1;
         for(Match m : matches) {
             m.play();
         }
         played = true;
+        event.record(number, 2 * matches.size());
+    }
+
+    /**
+     * Undoes play, taking every played match's ballots back out of its teams'
+     * records. If several rounds are unplayed, the newest should go first.
+     * Afterwards each team's statistics, and which teams can hit each other,
+     * are exactly as they were before the round was played.
+     */
+    public void unplay() {
+        for(int i = matches.size() - 1; i >= 0; i--) {
+            Match m = matches.get(i);
+            if(m.isPlayed()) {
+                m.unplay();
+            }
+        }
+        played = false;
+    }
+
+    /**
+     * Marks this round as played without playing any of its matches (for
+     * restoring a round whose matches have already been played).
+     */
+    void markPlayed() {
+        played = true;
     }
 
     /**
@@ -92,12 +121,11 @@ public class Round {
 
     @Override
     public String toString() {
-        String str = "";
+        StringBuilder str = new StringBuilder();
         for(Match m : matches) {
-            str += m + "\n";
+            str.append(m).append("\n");
         }
-        str = str.trim();
-        return str;
+        return str.toString().trim();
     }
 
 }
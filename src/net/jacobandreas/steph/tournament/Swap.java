@@ -1,7 +1,9 @@
 package net.jacobandreas.steph.tournament;
 
 /**
- * Represents a swap between two teams, for resolving impermissibles.
+ * Represents a swap between two teams, for resolving impermissibles. The
+ * differences used to rank candidate swaps are worked out once, when the swap
+ * is proposed.
  * @author jacob
  */
 public class Swap {
@@ -9,13 +11,21 @@ public class Swap {
     private Team team1, team2;
     private int side;
 
+    private final double winDifference;
+    private final double csDifference;
+    private final int pdDifference;
+    private final int rankSum;
+    private final int reach;
+
     /**
      * Creates a new swap of the two teams
      * @param t1 the first team in the swap
      * @param t2 the sescond team in the swap
      * @param side the side on which the swap is occurring
+     * @param rankSum the sum of the two teams' rank numbers in the card stack
+     * @param reach how far apart the two teams were in the card stack
      */
-    public Swap(Team t1, Team t2, int side) {
+    public Swap(Team t1, Team t2, int side, int rankSum, int reach) {
         if(t1.getNumber() < t2.getNumber()) {
             team1 = t1;
             team2 = t2;
@@ -24,6 +34,23 @@ public class Swap {
             team2 = t1;
         }
         this.side = side;
+
+        winDifference = Math.abs(team1.getWins() - team2.getWins());
+        csDifference = Math.abs(team1.getCombinedStrength() - team2.getCombinedStrength());
+        pdDifference = Math.abs(team1.getPointDifferential() - team2.getPointDifferential());
+        this.rankSum = rankSum;
+        this.reach = reach;
+    }
+
+    /**
+     * Creates a new swap of the two teams, where their ranks aren't known (or
+     * don't matter)
+     * @param t1 the first team in the swap
+     * @param t2 the sescond team in the swap
+     * @param side the side on which the swap is occurring
+     */
+    public Swap(Team t1, Team t2, int side) {
+        this(t1, t2, side, 0, 0);
     }
     
     public Swap(Team t1, Team t2) {
@@ -43,19 +70,32 @@ public class Swap {
     }
 
     public double getWinDifference() {
-        return Math.abs(getTeam1().getWins() - getTeam2().getWins());
+        return winDifference;
     }
 
     public double getCSDifference() {
-        return Math.abs(getTeam1().getCombinedStrength() - getTeam2().getCombinedStrength());
+        return csDifference;
     }
 
     public double getPDDifference() {
-        return Math.abs(getTeam1().getPointDifferential() - getTeam2().getPointDifferential());
+        return pdDifference;
     }
 
+    /**
+     * Gets the sum of the two teams' ranks at the time the swap was proposed.
+     * @return the rank sum
+     */
     public int getRankSum() {
-        return getTeam1().getRank() + getTeam2().getRank();
+        return rankSum;
+    }
+
+    /**
+     * Gets how far down (or up) the card stack the tabulator had to look to
+     * find this swap.
+     * @return the difference between the two teams' ranks, or 0 if unknown
+     */
+    public int getReach() {
+        return reach;
     }
 
     public boolean contains(Team t) {
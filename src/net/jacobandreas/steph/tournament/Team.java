@@ -4,16 +4,49 @@ import java.util.*;
 
 public class Team {
 
+    /**
+     * The number of ballots the running totals are initially sized for.
+     */
+    private static final int INITIAL_BALLOT_CAPACITY = 8;
+
     private String name;
     private int number;
 
+    // this team's position in its tournament, and the tournament's record of
+    // which teams can't hit each other
+    private int index;
+    private ConflictMatrix conflicts;
+
     private LinkedList<Team> program;
     
-    private LinkedList<Ballot> ballots;
-
-    private int rank;
-    private double sowRank;
-    private double solRank;
+    private ArrayList<Ballot> ballots;
+
+    // running statistics, kept up to date as ballots are added and removed
+    private double wins;
+    // pdSums[i] and pointSums[i] hold the totals over the first i ballots, so
+    // that any run of ballots can be summed in constant time
+    private int[] pdSums;
+    private int[] pointSums;
+
+    // this team's record against each team it has hit, and the records other
+    // teams hold against this one (i.e. who has hit this team), so that a
+    // change in this team's wins can be pushed to its opponents' CS, SOW and
+    // SOL without recomputing them
+    private HashMap<Team, Opposition> opponents;
+    private ArrayList<Opposition> hitBy;
+    private double cs;
+    private double sow;
+    private double sol;
+
+    // for a team forked from a snapshot, where the rest of its record is. The
+    // first sharedBallots of its ballots are still only in the snapshot (the
+    // ballots list holding the rest), pdSums and pointSums are the snapshot's
+    // until sharedSums is cleared, and opponents and hitBy are null until
+    // they are first needed
+    private TournamentFork fork;
+    private TournamentSnapshot.TeamRecord record;
+    private int sharedBallots;
+    private boolean sharedSums;
 
     /**
      * Creates a new Team with the given name and number
@@ -25,28 +58,94 @@ public class Team {
         this.name = name;
         this.number = number;
 
+        index = -1;
+        conflicts = null;
+
+        program = new LinkedList<Team>();
+
+        ballots = new ArrayList<Ballot>();
+
+        wins = 0;
+        pdSums = new int[INITIAL_BALLOT_CAPACITY + 1];
+        pointSums = new int[INITIAL_BALLOT_CAPACITY + 1];
+
+        opponents = new HashMap<Team, Opposition>();
+        hitBy = new ArrayList<Opposition>();
+        cs = 0;
+        sow = 0;
+        sol = 0;
+
+        fork = null;
+        record = null;
+        sharedBallots = 0;
+        sharedSums = false;
+
+    }
+
+    /**
+     * Creates a team forked from a snapshot. Its statistics are copied, and
+     * the rest of its record is shared with the snapshot until it is needed.
+     * @param fork the fork the team belongs to
+     * @param record the snapshot's record of the team
+     */
+    Team(TournamentFork fork, TournamentSnapshot.TeamRecord record) {
+
+        name = record.name;
+        number = record.number;
+
+        index = -1;
+        conflicts = null;
+
         program = new LinkedList<Team>();
 
-        ballots = new LinkedList<Ballot>();
+        ballots = new ArrayList<Ballot>();
+
+        wins = record.wins;
+        pdSums = record.pdSums;
+        pointSums = record.pointSums;
 
-        rank = 0;
-        sowRank = 0;
-        solRank = 0;
+        opponents = null;
+        hitBy = null;
+        cs = record.cs;
+        sow = record.sow;
+        sol = record.sol;
+
+        this.fork = fork;
+        this.record = record;
+        sharedBallots = record.ballots.length;
+        sharedSums = true;
 
     }
 
     public String getName() { return name; }
     public int getNumber() { return number; }
+    public int getIndex() { return index; }
     public int getPointDifferential() { return getPointDifferentialDropping(0); }
     public int getPoints() { return getPointsDropping(0); }
-    public int getRank() { return rank; }
-    public double getSOWRank() { return sowRank; }
-    public double getSOLRank() { return solRank; }
-    public double getSOORank() { return getSOWRank() + getSOLRank(); }
 
     public Collection<Team> getProgram() { return Collections.unmodifiableCollection(program); }
 
-    public List<Ballot> getBallots() { return Collections.unmodifiableList(ballots); }
+    public List<Ballot> getBallots() {
+        unshareBallots();
+        return Collections.unmodifiableList(ballots);
+    }
+
+    /**
+     * Gets the number of ballots on this team's record.
+     * @return the number of ballots
+     */
+    private int numBallots() {
+        return sharedBallots + ballots.size();
+    }
+
+    /**
+     * Gets the number of rounds this team has played, counting a round for
+     * every Match.MAX_BALLOTS ballots (or part thereof) on its record.
+     * @return the number of rounds played
+     */
+    public int getNumRoundsPlayed() {
+        return (numBallots() + Match.MAX_BALLOTS - 1) / Match.MAX_BALLOTS;
+    }
 
     /**
      * Gets a list of all the teams this team can't hit (i.e. teams from the same
@@ -65,10 +164,6 @@ public class Team {
      * @return this team's CS
      */
     public double getCombinedStrength() {
-        double cs = 0;
-        for(Team t : getHistory()) {
-            cs += t.getWins();
-        }
         return cs;
     }
 
@@ -78,16 +173,6 @@ public class Team {
      * @return This team's strength of win
      */
     public double getStrengthOfWin() {
-        double sow = 0;
-        for(Ballot b : getBallots()) {
-            int bpd = b.getPDFor(this);
-            if(bpd > 0) {
-                sow += b.getOpponentFor(this).getWins();
-            } else if(bpd == 0) {
-                // for a tie, we count each ballot as half a point for SOW
-                sow += b.getOpponentFor(this).getWins() / 2;
-            }
-        }
         return sow;
     }
 
@@ -96,16 +181,6 @@ public class Team {
      * @return This team's strength of loss
      */
     public double getStrengthOfLoss() {
-        double sol = 0;
-        for(Ballot b : getBallots()) {
-            int bpd = b.getPDFor(this);
-            if(bpd < 0) {
-                sol += b.getOpponentFor(this).getWins();
-            } else if(bpd == 0) {
-                // for a tie, we count each ballot as half a point for SOL
-                sol += b.getOpponentFor(this).getWins() / 2;
-            }
-        }
         return sol;
     }
 
@@ -116,11 +191,11 @@ public class Team {
      * @return the cumulative point differential without the dropped ballots
      */
     public int getPointDifferentialDropping(int count) {
-        int pd = 0;
-        for(int i = count; i < getBallots().size() - count; i++) {
-            pd += getBallots().get(i).getPDFor(this);
+        int n = numBallots();
+        if(n - count <= count) {
+            return 0;
         }
-        return pd;
+        return pdSums[n - count] - pdSums[count];
     }
 
     /**
@@ -130,11 +205,11 @@ public class Team {
      * @return the cumulative point total without the dropped ballots
      */
     public int getPointsDropping(int count) {
-        int points = 0;
-        for(int i = count; i < getBallots().size() - count; i++) {
-            points += getBallots().get(i).getTotalFor(this);
+        int n = numBallots();
+        if(n - count <= count) {
+            return 0;
         }
-        return points;
+        return pointSums[n - count] - pointSums[count];
     }
 
     /**
@@ -143,18 +218,25 @@ public class Team {
      * @return The team's win record
      */
     public double getWins() {
-        double wins = 0;
-        for(Ballot b : getBallots()) {
-            int pd = b.getPDFor(this);
-            if(pd == 0) {
-                wins += .5;
-            } else if(pd > 0) {
-                wins += 1;
-            }
-        }
         return wins;
     }
 
+    /**
+     * Gets the number of wins the given ballot is worth to this team (1 for a
+     * win, .5 for a tie and 0 for a loss).
+     * @param b the ballot to score
+     * @return b's contribution to this team's record
+     */
+    private double winsFrom(Ballot b) {
+        int pd = b.getPDFor(this);
+        if(pd == 0) {
+            return .5;
+        } else if(pd > 0) {
+            return 1;
+        }
+        return 0;
+    }
+
     /**
      * Gets the teams this team has hit in the past.
      * @return this team's history
@@ -175,7 +257,11 @@ public class Team {
      * @return this team's last side
      */
     public int getLastSide() {
-        return getBallots().get(getBallots().size() - 1).getSideFor(this);
+        if(ballots.isEmpty() && sharedBallots > 0) {
+            // the last ballot is still in the snapshot
+            return record.lastSide;
+        }
+        return ballots.get(ballots.size() - 1).getSideFor(this);
     }
 
     /**
@@ -186,6 +272,7 @@ public class Team {
      */
     public void addProgram(Team t) {
         program.add(t);
+        updateConflict(t);
     }
 
     /**
@@ -194,6 +281,7 @@ public class Team {
      */
     public void removeProgram(Team t) {
         program.remove(t);
+        updateConflict(t);
     }
 
     /**
@@ -202,6 +290,16 @@ public class Team {
      */
     public void addBallot(Ballot b) {
         ballots.add(b);
+        recordAgainst(b.getOpponentFor(this), b.getPDFor(this), 1);
+        changeWins(winsFrom(b));
+        int n = numBallots();
+        if(n >= pdSums.length) {
+            copySums(2 * pdSums.length);
+        } else if(sharedSums) {
+            copySums(pdSums.length);
+        }
+        pdSums[n] = pdSums[n - 1] + b.getPDFor(this);
+        pointSums[n] = pointSums[n - 1] + b.getTotalFor(this);
     }
 
     /**
@@ -209,7 +307,154 @@ public class Team {
      * @param b the ballot to remove
      */
     public void removeBallot(Ballot b) {
-        ballots.remove(b);
+        // ballots are usually removed newest first (e.g. when a round is
+        // unplayed), so search from the end
+        int index = ballots.lastIndexOf(b);
+        if(index < 0 && sharedBallots > 0) {
+            unshareBallots();
+            index = ballots.lastIndexOf(b);
+        }
+        if(index < 0) {
+            return;
+        }
+        ballots.remove(index);
+        recordAgainst(b.getOpponentFor(this), b.getPDFor(this), -1);
+        changeWins(-winsFrom(b));
+        // only the totals at or after the removed ballot have changed (and if
+        // it was the last one, none of the remaining totals have)
+        if(index < ballots.size() && sharedSums) {
+            copySums(pdSums.length);
+        }
+        for(int i = index; i < ballots.size(); i++) {
+            Ballot later = ballots.get(i);
+            int at = sharedBallots + i;
+            pdSums[at + 1] = pdSums[at] + later.getPDFor(this);
+            pointSums[at + 1] = pointSums[at] + later.getTotalFor(this);
+        }
+    }
+
+    /**
+     * Replaces the running totals with copies of the given length, so that
+     * they can be changed (and no longer belong to a snapshot).
+     * @param capacity the new length of the totals
+     */
+    private void copySums(int capacity) {
+        pdSums = Arrays.copyOf(pdSums, capacity);
+        pointSums = Arrays.copyOf(pointSums, capacity);
+        sharedSums = false;
+    }
+
+    /**
+     * Fetches the ballots this team still shares with a snapshot into its own
+     * list.
+     */
+    private void unshareBallots() {
+        if(sharedBallots == 0) {
+            return;
+        }
+        ArrayList<Ballot> all = new ArrayList<Ballot>(sharedBallots + ballots.size());
+        for(int i = 0; i < sharedBallots; i++) {
+            all.add(fork.ballot(record.ballots[i]));
+        }
+        all.addAll(ballots);
+        ballots = all;
+        sharedBallots = 0;
+    }
+
+    /**
+     * Builds this team's records against its opponents from the snapshot it
+     * was forked from, if that hasn't been done yet.
+     */
+    private void unshareOpponents() {
+        if(opponents != null) {
+            return;
+        }
+        opponents = new HashMap<Team, Opposition>();
+        for(int j = 0; j < record.opponents.length; j++) {
+            Opposition o = new Opposition(this);
+            o.ballots = record.oppositionBallots[j];
+            o.sowWeight = record.sowWeights[j];
+            o.solWeight = record.solWeights[j];
+            opponents.put(fork.team(record.opponents[j]), o);
+        }
+    }
+
+    /**
+     * Collects the records other teams hold against this one, if that hasn't
+     * been done yet. Those teams build their records first, so that every
+     * record is shared by its owner and the team it is against.
+     */
+    private void unshareHitBy() {
+        if(hitBy != null) {
+            return;
+        }
+        hitBy = new ArrayList<Opposition>(record.hitBy.length);
+        for(int i : record.hitBy) {
+            Team owner = fork.team(i);
+            owner.unshareOpponents();
+            hitBy.add(owner.opponents.get(this));
+        }
+    }
+
+    /**
+     * Adds (or, with a negative count, removes) ballots against the given
+     * opponent to this team's record, updating CS, SOW and SOL.
+     * @param opp the opponent on the ballots
+     * @param pd this team's point differential on each ballot
+     * @param count the number of ballots to add
+     */
+    private void recordAgainst(Team opp, int pd, int count) {
+        unshareOpponents();
+        // before this team's record against opp can be added to or dropped
+        // from it
+        opp.unshareHitBy();
+        Opposition o = opponents.get(opp);
+        if(o == null) {
+            o = new Opposition(this);
+            opponents.put(opp, o);
+            opp.hitBy.add(o);
+            // CS counts each opponent once, no matter how many ballots
+            cs += opp.getWins();
+            updateConflict(opp);
+        }
+        o.ballots += count;
+        if(pd >= 0) {
+            // for a tie, we count each ballot as half a point for SOW
+            double weight = count * (pd == 0 ? .5 : 1);
+            o.sowWeight += weight;
+            sow += weight * opp.getWins();
+        }
+        if(pd <= 0) {
+            // and half a point for SOL
+            double weight = count * (pd == 0 ? .5 : 1);
+            o.solWeight += weight;
+            sol += weight * opp.getWins();
+        }
+        if(o.ballots == 0) {
+            cs -= opp.getWins();
+            opponents.remove(opp);
+            opp.hitBy.remove(o);
+            updateConflict(opp);
+        }
+    }
+
+    /**
+     * Changes this team's win record, and pushes the change out to the CS, SOW
+     * and SOL of every team that has hit this one.
+     * @param delta the change in wins
+     */
+    private void changeWins(double delta) {
+        if(delta == 0) {
+            return;
+        }
+        unshareHitBy();
+        wins += delta;
+        for(Opposition o : hitBy) {
+            Team t = o.owner;
+            t.cs += delta;
+            t.sow += delta * o.sowWeight;
+            t.sol += delta * o.solWeight;
+        }
     }
 
     /**
@@ -219,33 +464,130 @@ public class Team {
      * otherwise
      */
     public boolean canHit(Team t) {
-        return !(getProgram().contains(t) || getHistory().contains(t));
+        if(t.belongsTo(conflicts)) {
+            return !conflicts.forbids(index, t.index);
+        }
+        return !(program.contains(t) || hasHit(t));
+    }
+
+    /**
+     * Determines whether this team has at least one ballot against another.
+     * @param t the team to check
+     * @return true if this team has hit t
+     */
+    private boolean hasHit(Team t) {
+        unshareOpponents();
+        return opponents.containsKey(t);
     }
 
     /**
-     * Set this team's rank (i.e. the rank number on this team's tab card).
-     * @param rank the rank to set
+     * Updates the tournament's conflict matrix after this team's program or
+     * history has changed with respect to the given team.
+     * @param t the team whose permissibility may have changed
      */
-    public void setRank(int rank) {
-        this.rank = rank;
+    private void updateConflict(Team t) {
+        if(t.belongsTo(conflicts)) {
+            conflicts.set(index, t.index, program.contains(t) || hasHit(t));
+        }
+    }
+
+    /**
+     * Adds this team to a tournament's conflict matrix.
+     * @param m the matrix to join
+     */
+    void joinConflictMatrix(ConflictMatrix m) {
+        conflicts = m;
+        index = m.addTeam(this);
+    }
+
+    /**
+     * Adds this team, forked from a snapshot, to its fork's conflict matrix,
+     * which already holds its row.
+     * @param m the matrix to join
+     */
+    void adoptConflictMatrix(ConflictMatrix m) {
+        conflicts = m;
+        index = m.adoptTeam(this);
     }
 
     /**
-     * Set this team's strength of win rank (that is, the ranking of its SOW
-     * compared to other teams with the same PD and CS).
-     * @param sowRank the SOW rank to set
+     * Adds the members of this team's program to a team forked from a
+     * snapshot, once all of the fork's teams have been created.
      */
-    public void setSOWRank(double sowRank) {
-        this.sowRank = sowRank;
+    void restoreProgram() {
+        for(int p : record.program) {
+            program.add(fork.team(p));
+        }
     }
 
     /**
-     * Set this team's strength of loss rank (that is, the ranking of its SOL
-     * compared to other teams with the same PD and CS).
-     * @param sowRank the SOL rank to set
+     * Records everything about this team in a snapshot.
+     * @param tournament the tournament this team belongs to
+     * @param ids numbers the ballots in the snapshot
+     * @return the team's frozen record
      */
-    public void setSOLRank(double solRank) {
-        this.solRank = solRank;
+    TournamentSnapshot.TeamRecord freeze(Tournament tournament, TournamentSnapshot.BallotIds ids) {
+        unshareBallots();
+        unshareOpponents();
+        unshareHitBy();
+
+        TournamentSnapshot.TeamRecord r = new TournamentSnapshot.TeamRecord();
+        r.name = name;
+        r.number = number;
+        r.program = new int[program.size()];
+        int j = 0;
+        for(Team p : program) {
+            r.program[j++] = tournament.indexOf(p);
+        }
+
+        int n = ballots.size();
+        r.ballots = new int[n];
+        for(int i = 0; i < n; i++) {
+            r.ballots[i] = ids.idOf(ballots.get(i));
+        }
+        r.lastSide = n == 0 ? Match.NO_SIDE : getLastSide();
+        r.wins = wins;
+        r.pdSums = Arrays.copyOf(pdSums, n + 1);
+        r.pointSums = Arrays.copyOf(pointSums, n + 1);
+
+        r.cs = cs;
+        r.sow = sow;
+        r.sol = sol;
+        r.opponents = new int[opponents.size()];
+        r.oppositionBallots = new int[opponents.size()];
+        r.sowWeights = new double[opponents.size()];
+        r.solWeights = new double[opponents.size()];
+        j = 0;
+        for(Map.Entry<Team, Opposition> e : opponents.entrySet()) {
+            r.opponents[j] = tournament.indexOf(e.getKey());
+            r.oppositionBallots[j] = e.getValue().ballots;
+            r.sowWeights[j] = e.getValue().sowWeight;
+            r.solWeights[j] = e.getValue().solWeight;
+            j++;
+        }
+        r.hitBy = new int[hitBy.size()];
+        for(int i = 0; i < r.hitBy.length; i++) {
+            r.hitBy[i] = tournament.indexOf(hitBy.get(i).owner);
+        }
+        return r;
+    }
+
+    /**
+     * Determines whether this team is recorded in the given conflict matrix.
+     * @param m the matrix to check
+     * @return true if this team has joined m
+     */
+    boolean belongsTo(ConflictMatrix m) {
+        return m != null && conflicts == m;
+    }
+
+    /**
+     * Gets the teams this team has at least one ballot against.
+     * @return this team's opponents, in no particular order
+     */
+    Collection<Team> getOpponents() {
+        unshareOpponents();
+        return Collections.unmodifiableCollection(opponents.keySet());
     }
 
     @Override
@@ -272,4 +614,22 @@ public class Team {
         return hash;
     }
 
+    /**
+     * One team's record against a single opponent: how many ballots it has
+     * against them, and how heavily the opponent's wins count towards its SOW
+     * and SOL.
+     */
+    private static class Opposition {
+
+        private final Team owner;
+        private int ballots;
+        private double sowWeight;
+        private double solWeight;
+
+        private Opposition(Team owner) {
+            this.owner = owner;
+        }
+
+    }
+
 }
@@ -3,6 +3,7 @@ package net.jacobandreas.steph.tournament;
 import net.jacobandreas.steph.event.*;
 import net.jacobandreas.steph.strategy.*;
 import net.jacobandreas.steph.exception.*;
+import net.jacobandreas.steph.jfr.*;
 import java.util.*;
 
 /**
@@ -11,18 +12,68 @@ import java.util.*;
  */
 public class Tournament implements PairingEventListener {
 
-    public static final int MAX_TEAMS = 48;
-    public static final int ROUNDS = 4;
-
     private ArrayList<Team> teams;
     private ArrayList<Round> rounds;
 
+    private ConflictMatrix conflicts;
+
+    // for a tournament forked from a snapshot, the snapshot until the teams
+    // are first needed, and then the teams' shared records; the snapshot's
+    // rounds are left null in rounds until they are looked at
+    private TournamentSnapshot snapshot;
+    private TournamentFork fork;
+
     /**
      * Creates a new tournament.
      */
     public Tournament() {
         teams = new ArrayList<Team>();
         rounds = new ArrayList<Round>();
+        conflicts = new ConflictMatrix();
+        snapshot = null;
+        fork = null;
+    }
+
+    /**
+     * Creates a tournament forked from a snapshot. Nothing is copied until
+     * the tournament is first used.
+     * @param snapshot the snapshot to fork
+     */
+    Tournament(TournamentSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Creates a forked tournament's teams, if that hasn't been done yet.
+     */
+    private void thaw() {
+        if(snapshot == null) {
+            return;
+        }
+        conflicts = snapshot.restoreConflicts();
+        fork = new TournamentFork(snapshot, conflicts);
+        int[] order = snapshot.getOrder();
+        teams = new ArrayList<Team>(order.length);
+        for(int i : order) {
+            teams.add(fork.team(i));
+        }
+        rounds = new ArrayList<Round>(Collections.<Round>nCopies(snapshot.getNumRounds(), null));
+        snapshot = null;
+    }
+
+    /**
+     * Gets a round, rebuilding it from the snapshot if need be.
+     * @param round the index of the round
+     * @return the round
+     */
+    private Round roundAt(int round) {
+        thaw();
+        Round r = rounds.get(round);
+        if(r == null) {
+            r = fork.round(round);
+            rounds.set(round, r);
+        }
+        return r;
     }
 
     /**
@@ -31,6 +82,9 @@ public class Tournament implements PairingEventListener {
      * @return the number of rounds already paired
      */
     public int getNumRounds() {
+        if(snapshot != null) {
+            return snapshot.getNumRounds();
+        }
         return rounds.size();
     }
 
@@ -40,7 +94,7 @@ public class Tournament implements PairingEventListener {
      * @return the appropriate Round
      */
     public Round getRound(int round) {
-        return rounds.get(round);
+        return roundAt(round);
     }
 
     /**
@@ -48,15 +102,19 @@ public class Tournament implements PairingEventListener {
      * @return the current round
      */
     public Round getCurrentRound() {
-        return rounds.get(rounds.size() - 1);
+        return roundAt(getNumRounds() - 1);
     }
 
     /**
-     * Adds a team to this tournament
+     * Adds a team to this tournament. A team already in another tournament
+     * still works there, but is checked against the other teams more slowly,
+     * and that tournament can no longer be snapshotted.
      * @param t the team to add
      */
     public void addTeam(Team t) {
+        thaw();
         teams.add(t);
+        t.joinConflictMatrix(conflicts);
     }
 
     /**
@@ -66,7 +124,69 @@ public class Tournament implements PairingEventListener {
      * @throws net.jacobandreas.steph.exception.TournamentStateException
      */
     public void addRound(PairingStrategy strategy) throws TournamentStateException {
-        rounds.add(strategy.pair(teams));
+        addRoundWithPairersList(strategy);
+    }
+
+    /**
+     * Creates a new round in this tournament exactly as addRound does, also
+     * keeping the pairer's list (which is empty if the strategy doesn't keep
+     * one) and the metrics recorded while pairing.
+     * @param strategy The strategy to use in pairing the round
+     * @return the paired round, its pairer's list and its metrics
+     * @throws net.jacobandreas.steph.exception.TournamentStateException
+     */
+    public PairingResult addRoundWithPairersList(PairingStrategy strategy) throws TournamentStateException {
+        thaw();
+        AddRoundEvent event = new AddRoundEvent();
+        event.begin();
+        PairingResult result;
+        if(strategy instanceof BasePairingStrategy) {
+            result = ((BasePairingStrategy) strategy).pairWithPairersList(teams);
+        } else {
+            result = new PairingResult(strategy.pair(teams), Collections.<Swap>emptyList());
+        }
+        rounds.add(result.getRound());
+        PairingMetrics metrics = result.getMetrics();
+        event.record(rounds.size(), teams.size(), strategy, result.getPairersList().size(),
+                metrics.getMaxReach(), metrics.isUnpairable());
+        return result;
+    }
+
+    /**
+     * Takes a snapshot of this tournament, from which any number of
+     * independent copies can later be forked. Changes made to this tournament
+     * afterwards do not affect the snapshot.
+     * @return a snapshot of this tournament's current state
+     */
+    public TournamentSnapshot snapshot() {
+        if(snapshot != null) {
+            // an untouched fork is still in the state it was forked in
+            return snapshot;
+        }
+        return new TournamentSnapshot(this);
+    }
+
+    /**
+     * Gets the matrix of which of this tournament's teams can't hit each
+     * other.
+     * @return the conflict matrix
+     */
+    ConflictMatrix getConflictMatrix() {
+        thaw();
+        return conflicts;
+    }
+
+    /**
+     * Gets a team's position in this tournament.
+     * @param t a team in this tournament
+     * @return the index of t
+     */
+    int indexOf(Team t) {
+        thaw();
+        if(!t.belongsTo(conflicts)) {
+            throw new IllegalArgumentException(t + " is not in this tournament");
+        }
+        return t.getIndex();
     }
 
     /**
@@ -78,10 +198,22 @@ public class Tournament implements PairingEventListener {
         if(getCurrentRound().isPairingLocked()) {
             throw new TournamentStateException("Attempting to discard a locked round");
         }
-        rounds.remove(getCurrentRound());
+        rounds.remove(rounds.size() - 1);
+    }
+
+    /**
+     * Throws away the most recently created round, even if it is locked,
+     * first unplaying it if it has been played. Every team is left exactly as
+     * it was before the round was paired, so rounds can be rolled back one at
+     * a time while exploring different outcomes.
+     */
+    public void rollbackLastRound() {
+        Round round = getCurrentRound();
+        round.unplay();
+        rounds.remove(rounds.size() - 1);
     }
     
-    public void pairingEventOccurred(String event, Object data) {
+    public void pairingEventOccurred(PairingEvent event) {
     }
 
     /**
@@ -109,6 +241,7 @@ public class Tournament implements PairingEventListener {
      * @return this tournament's teams
      */
     public Collection<Team> getTeams() {
+        thaw();
         return Collections.unmodifiableCollection(teams);
     }
 
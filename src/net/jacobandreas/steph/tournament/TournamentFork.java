@@ -0,0 +1,69 @@
+package net.jacobandreas.steph.tournament;
+
+/**
+ * The teams and ballots of one tournament forked from a snapshot. Teams look
+ * up the other teams and ballots on their shared records here, so that
+ * everything in the fork refers to the fork's own objects. Ballots are only
+ * created when a team's record or a round first needs them.
+ *
+ * @author jacob
+ */
+class TournamentFork {
+
+    private final TournamentSnapshot snapshot;
+    private final Team[] teams;
+    private Ballot[] ballots;
+
+    /**
+     * Creates the fork's teams, in the snapshot's state.
+     * @param snapshot the snapshot to fork
+     * @param conflicts the fork's conflict matrix, which the teams join
+     */
+    TournamentFork(TournamentSnapshot snapshot, ConflictMatrix conflicts) {
+        this.snapshot = snapshot;
+        teams = new Team[snapshot.getNumTeams()];
+        for(int i = 0; i < teams.length; i++) {
+            teams[i] = new Team(this, snapshot.getTeamRecord(i));
+            teams[i].adoptConflictMatrix(conflicts);
+        }
+        for(Team t : teams) {
+            t.restoreProgram();
+        }
+        ballots = null;
+    }
+
+    /**
+     * Gets one of the fork's teams.
+     * @param index the team's index in the tournament
+     * @return the team
+     */
+    Team team(int index) {
+        return teams[index];
+    }
+
+    /**
+     * Gets the fork's copy of one of the snapshot's ballots, creating it the
+     * first time it is needed.
+     * @param id the ballot's id in the snapshot
+     * @return the ballot
+     */
+    Ballot ballot(int id) {
+        if(ballots == null) {
+            ballots = new Ballot[snapshot.getNumBallots()];
+        }
+        if(ballots[id] == null) {
+            ballots[id] = snapshot.restoreBallot(id, this);
+        }
+        return ballots[id];
+    }
+
+    /**
+     * Rebuilds one of the snapshot's rounds for the fork.
+     * @param round the index of the round
+     * @return the fork's copy of the round
+     */
+    Round round(int round) {
+        return snapshot.restoreRound(round, this);
+    }
+
+}
@@ -0,0 +1,280 @@
+package net.jacobandreas.steph.tournament;
+
+import net.jacobandreas.steph.exception.*;
+import java.util.*;
+
+/**
+ * A frozen copy of a tournament: every team's record and statistics, and the
+ * pairings, ballots and lock/played state of every round, all held in plain
+ * arrays that are never modified. Any number of independent tournaments can
+ * be forked from the same snapshot (e.g. to try out different ballots in the
+ * next round), and nothing done to one fork affects the snapshot or any
+ * other fork.
+ *
+ * Forking takes constant time: forks share the snapshot's arrays, copying
+ * only what they change. A fork's teams are created the first time they are
+ * needed, each with a copy of its statistics but sharing its ballots,
+ * running totals and records against other teams with the snapshot until it
+ * changes them (e.g. when the next round is played). Earlier rounds are only
+ * rebuilt if they are looked at. So a fork which pairs and plays one more
+ * round costs about as much as that round, however long the shared prefix.
+ *
+ * @author jacob
+ */
+public class TournamentSnapshot {
+
+    // teams are identified by their index in the tournament
+    private final TeamRecord[] teams;
+    // the order of the tournament's team list, which pairing may have changed
+    private final int[] order;
+
+    private final RoundRecord[] rounds;
+
+    // every ballot on a team's record or in a round, identified by its
+    // position in these arrays
+    private final int[] ballotPis;
+    private final int[] ballotDeltas;
+    private final int[] piTotals;
+    private final int[] deltaTotals;
+
+    // the rows of the tournament's conflict matrix
+    private final long[] conflicts;
+    private final int conflictRowWords;
+
+    /**
+     * Takes a snapshot of the given tournament. Every team on every match and
+     * ballot must belong to that tournament.
+     * @param tournament the tournament to freeze
+     */
+    TournamentSnapshot(Tournament tournament) {
+        BallotIds ballots = new BallotIds();
+
+        int n = tournament.getTeams().size();
+        teams = new TeamRecord[n];
+        order = new int[n];
+        int position = 0;
+        for(Team t : tournament.getTeams()) {
+            int i = tournament.indexOf(t);
+            order[position++] = i;
+            teams[i] = t.freeze(tournament, ballots);
+        }
+
+        rounds = new RoundRecord[tournament.getNumRounds()];
+        for(int r = 0; r < rounds.length; r++) {
+            rounds[r] = new RoundRecord(tournament, tournament.getRound(r), ballots);
+        }
+
+        int count = ballots.list.size();
+        ballotPis = new int[count];
+        ballotDeltas = new int[count];
+        piTotals = new int[count];
+        deltaTotals = new int[count];
+        for(int k = 0; k < count; k++) {
+            Ballot ballot = ballots.list.get(k);
+            ballotPis[k] = tournament.indexOf(ballot.getPi());
+            ballotDeltas[k] = tournament.indexOf(ballot.getDelta());
+            piTotals[k] = ballot.getPiTotal();
+            deltaTotals[k] = ballot.getDeltaTotal();
+        }
+
+        ConflictMatrix matrix = tournament.getConflictMatrix();
+        conflicts = matrix.copyBits();
+        conflictRowWords = matrix.getRowWords();
+    }
+
+    /**
+     * Gets the number of rounds that had been paired when the snapshot was
+     * taken.
+     * @return the number of rounds in the snapshot
+     */
+    public int getNumRounds() {
+        return rounds.length;
+    }
+
+    /**
+     * Creates a new tournament in exactly the state this snapshot was taken
+     * in. This takes constant time; see above.
+     * @return the new tournament
+     */
+    public Tournament fork() {
+        return new Tournament(this);
+    }
+
+    int getNumTeams() {
+        return teams.length;
+    }
+
+    TeamRecord getTeamRecord(int index) {
+        return teams[index];
+    }
+
+    int[] getOrder() {
+        return order;
+    }
+
+    int getNumBallots() {
+        return ballotPis.length;
+    }
+
+    /**
+     * Creates a fork's copy of a ballot.
+     * @param id the ballot's position in the snapshot
+     * @param fork the fork to create it for
+     * @return the new ballot, between the fork's teams
+     */
+    Ballot restoreBallot(int id, TournamentFork fork) {
+        return new Ballot(fork.team(ballotPis[id]), fork.team(ballotDeltas[id]),
+                piTotals[id], deltaTotals[id]);
+    }
+
+    /**
+     * Creates a fork's copy of a round.
+     * @param round the index of the round
+     * @param fork the fork to create it for
+     * @return the new round
+     */
+    Round restoreRound(int round, TournamentFork fork) {
+        return rounds[round].restore(fork);
+    }
+
+    /**
+     * Creates a conflict matrix for a fork, sharing this snapshot's rows until
+     * one of them changes.
+     * @return the new matrix
+     */
+    ConflictMatrix restoreConflicts() {
+        return new ConflictMatrix(conflicts, conflictRowWords);
+    }
+
+    /**
+     * Numbers the ballots found while taking a snapshot, so that the same
+     * ballot gets the same id in its match and on both teams' records.
+     */
+    static class BallotIds {
+
+        private final IdentityHashMap<Ballot, Integer> ids = new IdentityHashMap<Ballot, Integer>();
+        private final ArrayList<Ballot> list = new ArrayList<Ballot>();
+
+        int idOf(Ballot b) {
+            Integer id = ids.get(b);
+            if(id == null) {
+                id = list.size();
+                ids.put(b, id);
+                list.add(b);
+            }
+            return id;
+        }
+
+    }
+
+    /**
+     * One team's frozen record and statistics. Other teams are identified by
+     * their index in the tournament, and ballots by their id in the snapshot.
+     * Written once by Team.freeze and never modified.
+     */
+    static class TeamRecord {
+
+        String name;
+        int number;
+        int[] program;
+
+        int[] ballots;
+        // the side the team was on in its last ballot, if it has any
+        int lastSide;
+        double wins;
+        int[] pdSums;
+        int[] pointSums;
+
+        double cs;
+        double sow;
+        double sol;
+        // the team's record against each opponent, in parallel arrays
+        int[] opponents;
+        int[] oppositionBallots;
+        double[] sowWeights;
+        double[] solWeights;
+        // the teams that have hit this one
+        int[] hitBy;
+
+    }
+
+    /**
+     * One round's matches and ballots. Ballot k of the round belongs to the
+     * match m with ballotStart[m] <= k < ballotStart[m + 1].
+     */
+    private static class RoundRecord {
+
+        private final boolean pairingLocked;
+        private final boolean played;
+
+        private final int[] pis;
+        private final int[] deltas;
+        private final boolean[] matchPlayed;
+
+        private final int[] ballotStart;
+        private final int[] ballots;
+
+        RoundRecord(Tournament tournament, Round round, BallotIds ids) {
+            pairingLocked = round.isPairingLocked();
+            played = round.isPlayed();
+
+            int matches = round.getNumMatches();
+            pis = new int[matches];
+            deltas = new int[matches];
+            matchPlayed = new boolean[matches];
+            ballotStart = new int[matches + 1];
+            int count = 0;
+            for(int m = 0; m < matches; m++) {
+                Match match = round.getMatches().get(m);
+                pis[m] = tournament.indexOf(match.getPi());
+                deltas[m] = tournament.indexOf(match.getDelta());
+                matchPlayed[m] = match.isPlayed();
+                ballotStart[m] = count;
+                count += match.getNumBallots();
+            }
+            ballotStart[matches] = count;
+
+            ballots = new int[count];
+            int k = 0;
+            for(Match match : round.getMatches()) {
+                for(int b = 0; b < match.getNumBallots(); b++) {
+                    ballots[k++] = ids.idOf(match.getBallot(b));
+                }
+            }
+        }
+
+        /**
+         * Rebuilds the round for a fork. Its played matches' ballots are
+         * already on the fork's teams' records, so they are only marked as
+         * played.
+         * @param fork the fork to rebuild the round for
+         * @return the rebuilt round
+         */
+        Round restore(TournamentFork fork) {
+            Round round = new Round();
+            for(int m = 0; m < pis.length; m++) {
+                Match match = new Match(fork.team(pis[m]), fork.team(deltas[m]));
+                for(int k = ballotStart[m]; k < ballotStart[m + 1]; k++) {
+                    match.addBallot(fork.ballot(ballots[k]));
+                }
+                if(matchPlayed[m]) {
+                    match.markPlayed();
+                }
+                round.addMatch(match);
+            }
+            if(pairingLocked) {
+                try {
+                    round.setPairingLocked(true);
+                } catch(TournamentStateException e) {
+                    throw new AssertionError("Sanity check failed: new round was already locked");
+                }
+            }
+            if(played) {
+                round.markPlayed();
+            }
+            return round;
+        }
+
+    }
+
+}